@@ -0,0 +1,68 @@
+-- Per-mode stats: JSON text columns -> packed BINARY(64) columns.
+--
+-- Each mode_* value is 16 big-endian ints in ModeStats order:
+-- wins, rounds, score, time, kills, deaths, stuns, stunsRec, hsKills, hsDeaths,
+-- hsStuns, hsStunsRec, lockKills, lockDeaths, lockStuns, lockStunsRec.
+--
+-- Run once with the server stopped, as described under "Upgrading" in the
+-- README; docker-compose doesn't run it. The old stats_* columns are kept for
+-- rollback; drop them once the new ones check out.
+
+DELIMITER //
+
+DROP FUNCTION IF EXISTS echo_pack_mode_stats//
+CREATE FUNCTION echo_pack_mode_stats(stats TEXT) RETURNS VARBINARY(64) DETERMINISTIC
+BEGIN
+    DECLARE fields JSON DEFAULT JSON_ARRAY('wins', 'rounds', 'score', 'time', 'kills', 'deaths', 'stuns',
+        'stunsRec', 'hsKills', 'hsDeaths', 'hsStuns', 'hsStunsRec', 'lockKills', 'lockDeaths', 'lockStuns',
+        'lockStunsRec');
+    DECLARE packed VARBINARY(64) DEFAULT '';
+    DECLARE i INT DEFAULT 0;
+    DECLARE v BIGINT;
+
+    WHILE i < 16 DO
+        SET v = 0;
+        IF stats IS NOT NULL AND JSON_VALID(stats) THEN
+            SET v = COALESCE(CAST(JSON_EXTRACT(stats,
+                CONCAT('$.', JSON_UNQUOTE(JSON_EXTRACT(fields, CONCAT('$[', i, ']'))))) AS SIGNED), 0);
+        END IF;
+        SET packed = CONCAT(packed, UNHEX(LPAD(HEX(v & 0xFFFFFFFF), 8, '0')));
+        SET i = i + 1;
+    END WHILE;
+
+    RETURN packed;
+END//
+
+DROP PROCEDURE IF EXISTS echo_migrate_mode_stats//
+CREATE PROCEDURE echo_migrate_mode_stats(tbl VARCHAR(64))
+BEGIN
+    SET @sql = CONCAT('ALTER TABLE ', tbl,
+        ' ADD COLUMN mode_dm BINARY(64) NULL, ADD COLUMN mode_tdm BINARY(64) NULL,',
+        ' ADD COLUMN mode_res BINARY(64) NULL, ADD COLUMN mode_cap BINARY(64) NULL,',
+        ' ADD COLUMN mode_base BINARY(64) NULL, ADD COLUMN mode_bomb BINARY(64) NULL,',
+        ' ADD COLUMN mode_sne BINARY(64) NULL, ADD COLUMN mode_tsne BINARY(64) NULL,',
+        ' ADD COLUMN mode_sdm BINARY(64) NULL, ADD COLUMN mode_int BINARY(64) NULL,',
+        ' ADD COLUMN mode_scap BINARY(64) NULL, ADD COLUMN mode_race BINARY(64) NULL');
+    PREPARE stmt FROM @sql;
+    EXECUTE stmt;
+    DEALLOCATE PREPARE stmt;
+
+    SET @sql = CONCAT('UPDATE ', tbl, ' SET',
+        ' mode_dm = echo_pack_mode_stats(stats_dm), mode_tdm = echo_pack_mode_stats(stats_tdm),',
+        ' mode_res = echo_pack_mode_stats(stats_res), mode_cap = echo_pack_mode_stats(stats_cap),',
+        ' mode_base = echo_pack_mode_stats(stats_base), mode_bomb = echo_pack_mode_stats(stats_bomb),',
+        ' mode_sne = echo_pack_mode_stats(stats_sne), mode_tsne = echo_pack_mode_stats(stats_tsne),',
+        ' mode_sdm = echo_pack_mode_stats(stats_sdm), mode_int = echo_pack_mode_stats(stats_int),',
+        ' mode_scap = echo_pack_mode_stats(stats_scap), mode_race = echo_pack_mode_stats(stats_race)');
+    PREPARE stmt FROM @sql;
+    EXECUTE stmt;
+    DEALLOCATE PREPARE stmt;
+END//
+
+DELIMITER ;
+
+CALL echo_migrate_mode_stats('mgo2_characters_stats');
+CALL echo_migrate_mode_stats('mgo2_characters_stats_weekly');
+
+DROP PROCEDURE echo_migrate_mode_stats;
+DROP FUNCTION echo_pack_mode_stats;
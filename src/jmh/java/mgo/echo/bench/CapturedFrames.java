@@ -0,0 +1,154 @@
+package mgo.echo.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.embedded.EmbeddedChannel;
+import mgo.echo.protocol.Packet;
+import mgo.echo.protocol.PacketEncoder;
+
+/**
+ * Loads the captured payloads under {@code test/} and turns them into
+ * realistic wire frames for the benchmarks.
+ *
+ * Files are named after the command they were captured from, e.g.
+ * {@code 4b21.bin} or {@code 4b47-1.bin}. The directory can be overridden with
+ * {@code -Decho.bench.frames=/path}.
+ */
+final class CapturedFrames {
+    private static final Pattern NAME = Pattern.compile("^([0-9a-f]{4})(-[\\w-]+)?\\.bin$");
+
+    /** Commands the decoder pads to the cipher block size; skipped unless aligned. */
+    private static final int[] INBOUND_CRYPTED = { 0x3003, 0x4310, 0x4320, 0x43c0, 0x4700, 0x4990 };
+
+    static final class Capture {
+        final String name;
+        final int command;
+        final byte[] payload;
+
+        Capture(String name, int command, byte[] payload) {
+            this.name = name;
+            this.command = command;
+            this.payload = payload;
+        }
+    }
+
+    private CapturedFrames() {
+    }
+
+    static File directory() {
+        return new File(System.getProperty("echo.bench.frames", "test"));
+    }
+
+    static List<Capture> load() throws IOException {
+        File[] files = directory().listFiles();
+        if (files == null) {
+            throw new IOException("No capture directory: " + directory().getAbsolutePath());
+        }
+        Arrays.sort(files);
+
+        List<Capture> captures = new ArrayList<>();
+        for (File file : files) {
+            Matcher matcher = NAME.matcher(file.getName());
+            if (!matcher.matches()) {
+                continue;
+            }
+
+            int command = Integer.parseInt(matcher.group(1), 16);
+            byte[] payload = Files.readAllBytes(file.toPath());
+            if (command == 0 || payload.length > Packet.MAX_PAYLOAD_LENGTH) {
+                continue;
+            }
+            if (isInboundCrypted(command) && payload.length % 8 != 0) {
+                continue;
+            }
+
+            captures.add(new Capture(file.getName(), command, payload));
+        }
+
+        if (captures.isEmpty()) {
+            throw new IOException("No captures in " + directory().getAbsolutePath());
+        }
+        return captures;
+    }
+
+    static Capture load(String name) throws IOException {
+        for (Capture capture : load()) {
+            if (capture.name.equals(name)) {
+                return capture;
+            }
+        }
+        throw new IOException("No capture named " + name);
+    }
+
+    /**
+     * Encodes the captures back to back, as a client would send them.
+     */
+    static byte[] encode(List<Capture> captures) {
+        EmbeddedChannel channel = channel(new PacketEncoder());
+        for (Capture capture : captures) {
+            channel.write(new Packet(capture.command, payload(channel, capture)));
+        }
+        channel.flush();
+
+        int length = 0;
+        List<ByteBuf> frames = new ArrayList<>();
+        ByteBuf frame;
+        while ((frame = channel.readOutbound()) != null) {
+            length += frame.readableBytes();
+            frames.add(frame);
+        }
+
+        byte[] stream = new byte[length];
+        int offset = 0;
+        for (ByteBuf buffer : frames) {
+            int readable = buffer.readableBytes();
+            buffer.readBytes(stream, offset, readable);
+            offset += readable;
+            buffer.release();
+        }
+
+        channel.finishAndReleaseAll();
+        return stream;
+    }
+
+    static ByteBuf payload(EmbeddedChannel channel, Capture capture) {
+        ByteBuf payload = channel.alloc().directBuffer(capture.payload.length);
+        payload.writeBytes(capture.payload);
+        return payload;
+    }
+
+    /**
+     * Embedded channel with a socket remote address, so the codec's user info
+     * logging works as it does on a real connection.
+     */
+    static EmbeddedChannel channel(ChannelHandler... handlers) {
+        return new EmbeddedChannel(handlers) {
+            private final InetSocketAddress remote = new InetSocketAddress("127.0.0.1", 5731);
+
+            @Override
+            protected SocketAddress remoteAddress0() {
+                return remote;
+            }
+        };
+    }
+
+    private static boolean isInboundCrypted(int command) {
+        for (int crypted : INBOUND_CRYPTED) {
+            if (crypted == command) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
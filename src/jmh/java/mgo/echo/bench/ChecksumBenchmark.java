@@ -0,0 +1,64 @@
+package mgo.echo.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import mgo.echo.bench.CapturedFrames.Capture;
+import mgo.echo.protocol.Packet;
+
+/**
+ * Packet.prepare (sign) and Packet.validate (verify) over captured payloads.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChecksumBenchmark {
+    @Param({ "4401.bin", "4122.bin", "4b21.bin" })
+    public String capture;
+
+    private Packet packet;
+
+    @Setup
+    public void setup() throws Exception {
+        Capture loaded = CapturedFrames.load(capture);
+        ByteBuf payload = PooledByteBufAllocator.DEFAULT.directBuffer(loaded.payload.length);
+        payload.writeBytes(loaded.payload);
+
+        packet = new Packet(loaded.command, payload);
+        packet.setSequence(1);
+        packet.prepare();
+    }
+
+    @TearDown
+    public void tearDown() {
+        packet.release();
+    }
+
+    @Benchmark
+    public Packet prepare() {
+        packet.prepare();
+        return packet;
+    }
+
+    @Benchmark
+    public boolean validate() {
+        return packet.validate();
+    }
+}
@@ -0,0 +1,65 @@
+package mgo.echo.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import mgo.echo.bench.CapturedFrames.Capture;
+import mgo.echo.security.CryptoProvider;
+
+/**
+ * In-place CryptoProvider encrypt/decrypt over captured payloads, rounded up to
+ * the 8-byte block size the same way PacketEncoder pads them.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CryptoBenchmark {
+    @Param({ "4401.bin", "4122.bin", "4b21.bin" })
+    public String capture;
+
+    private ByteBuf buffer;
+
+    @Setup
+    public void setup() throws Exception {
+        Capture loaded = CapturedFrames.load(capture);
+        int length = (loaded.payload.length + 7) & ~7;
+
+        buffer = PooledByteBufAllocator.DEFAULT.directBuffer(length, length);
+        buffer.writeBytes(loaded.payload);
+        buffer.writeZero(length - loaded.payload.length);
+    }
+
+    @TearDown
+    public void tearDown() {
+        buffer.release();
+    }
+
+    @Benchmark
+    public ByteBuf encrypt() {
+        CryptoProvider.instancePacket().encrypt(buffer);
+        return buffer;
+    }
+
+    @Benchmark
+    public ByteBuf decrypt() {
+        CryptoProvider.instancePacket().decrypt(buffer);
+        return buffer;
+    }
+}
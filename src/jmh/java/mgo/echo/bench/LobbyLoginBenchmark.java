@@ -0,0 +1,149 @@
+package mgo.echo.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+import org.hibernate.Hibernate;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import mgo.echo.data.entity.Character;
+import mgo.echo.data.entity.ClanMember;
+import mgo.echo.data.repository.DbExecutor;
+import mgo.echo.data.repository.DbManager;
+import mgo.echo.handler.account.service.LobbyCharacterLoader;
+import mgo.echo.util.Util;
+
+/**
+ * Lobby character loading, one lazy initialize per association versus
+ * {@link LobbyCharacterLoader}, for a burst of concurrent logins.
+ *
+ * Needs a MySQL database with characters in it:
+ * {@code -Decho.bench.db.url=jdbc:mysql://localhost/mgo2 -Decho.bench.db.user=...
+ * -Decho.bench.db.password=...}. Prepared statements per login are printed
+ * after each iteration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class LobbyLoginBenchmark {
+    @Param({ "1", "16" })
+    public int logins;
+
+    private List<Integer> charaIds;
+    private ExecutorService clients;
+    private Statistics statistics;
+    private long operations;
+
+    @Setup
+    public void setup() {
+        String url = System.getProperty("echo.bench.db.url");
+        if (url == null) {
+            throw new IllegalStateException("Set -Decho.bench.db.url to a database with characters.");
+        }
+
+        DbManager.initialize(url, System.getProperty("echo.bench.db.user", "root"),
+                System.getProperty("echo.bench.db.password", ""), logins, logins + 4, 1);
+        DbExecutor.start(4);
+
+        charaIds = DbManager.txOrThrow(session -> session
+                .createQuery("select c.id from Character c order by c.id", Integer.class)
+                .setMaxResults(logins)
+                .list());
+        if (charaIds.size() < logins) {
+            throw new IllegalStateException("Need at least " + logins + " characters, found " + charaIds.size());
+        }
+
+        clients = Executors.newFixedThreadPool(logins);
+        statistics = DbManager.getSessionFactory().getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @Setup(Level.Iteration)
+    public void resetStatistics() {
+        statistics.clear();
+        operations = 0;
+    }
+
+    @TearDown(Level.Iteration)
+    public void printStatistics() {
+        if (operations > 0) {
+            System.out.printf("%n%.1f statements per login%n",
+                    statistics.getPrepareStatementCount() / (double) (operations * logins));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        clients.shutdownNow();
+        DbExecutor.stop();
+    }
+
+    @Benchmark
+    public void lazyInitialize() {
+        operations++;
+        run(LobbyLoginBenchmark::initializeEach);
+    }
+
+    @Benchmark
+    public void batchedLoader() {
+        operations++;
+        run(LobbyCharacterLoader::load);
+    }
+
+    private void run(IntConsumer login) {
+        List<CompletableFuture<Void>> futures = new ArrayList<>(logins);
+        for (Integer charaId : charaIds) {
+            futures.add(CompletableFuture.runAsync(() -> login.accept(charaId), clients));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+    }
+
+    /**
+     * What AccountService.connectToLobby did before the loader.
+     */
+    private static void initializeEach(int charaId) {
+        DbManager.txVoidOrThrow(session -> {
+            Character character = session.getReference(Character.class, charaId);
+            Hibernate.initialize(character);
+            Hibernate.initialize(character.getAppearance());
+            Hibernate.initialize(character.getBlocked());
+            Hibernate.initialize(character.getChatMacros());
+            Hibernate.initialize(character.getClanApplication());
+            Hibernate.initialize(character.getClanMember());
+
+            ClanMember clanMember = Util.getFirstOrNull(character.getClanMember());
+            if (clanMember != null) {
+                Hibernate.initialize(clanMember.getClan());
+            }
+
+            Hibernate.initialize(character.getConnectionInfo());
+            Hibernate.initialize(character.getFriends());
+            Hibernate.initialize(character.getHostSettings());
+            Hibernate.initialize(character.getPlayer());
+            Hibernate.initialize(character.getSetsGear());
+            Hibernate.initialize(character.getSetsSkills());
+            Hibernate.initialize(character.getSkills());
+        });
+    }
+}
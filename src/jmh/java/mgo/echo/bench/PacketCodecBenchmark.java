@@ -0,0 +1,93 @@
+package mgo.echo.bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.embedded.EmbeddedChannel;
+import mgo.echo.bench.CapturedFrames.Capture;
+import mgo.echo.protocol.Packet;
+import mgo.echo.protocol.PacketDecoder;
+import mgo.echo.protocol.PacketEncoder;
+import mgo.echo.protocol.PacketFrameDecoder;
+
+/**
+ * Decodes and encodes every captured frame once per operation.
+ * A fresh channel is used per operation since the codecs keep sequence state.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PacketCodecBenchmark {
+    private static final PacketDecoder LEGACY_DECODER = new PacketDecoder();
+
+    private List<Capture> captures;
+    private byte[] stream;
+
+    @Setup
+    public void setup() throws Exception {
+        captures = CapturedFrames.load();
+        stream = CapturedFrames.encode(captures);
+    }
+
+    @Benchmark
+    public int decodeLegacy() {
+        return decode(LEGACY_DECODER);
+    }
+
+    @Benchmark
+    public int decodeFrame() {
+        return decode(new PacketFrameDecoder());
+    }
+
+    @Benchmark
+    public int encode() {
+        EmbeddedChannel channel = CapturedFrames.channel(new PacketEncoder());
+        for (Capture capture : captures) {
+            channel.write(new Packet(capture.command, CapturedFrames.payload(channel, capture)));
+        }
+        channel.flush();
+
+        int bytes = 0;
+        ByteBuf frame;
+        while ((frame = channel.readOutbound()) != null) {
+            bytes += frame.readableBytes();
+            frame.release();
+        }
+
+        channel.finishAndReleaseAll();
+        return bytes;
+    }
+
+    private int decode(ChannelHandler decoder) {
+        EmbeddedChannel channel = CapturedFrames.channel(decoder);
+        ByteBuf in = channel.alloc().directBuffer(stream.length);
+        in.writeBytes(stream);
+        channel.writeInbound(in);
+
+        int packets = 0;
+        Object msg;
+        while ((msg = channel.readInbound()) != null) {
+            ((Packet) msg).release();
+            packets++;
+        }
+
+        channel.finishAndReleaseAll();
+        return packets;
+    }
+}
@@ -0,0 +1,92 @@
+package mgo.echo.bench;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import mgo.echo.bench.CapturedFrames.Capture;
+import mgo.echo.protocol.Packet;
+import mgo.echo.util.Util;
+
+/**
+ * Util.xor over a full frame, and the fixed-width string codec on the
+ * character name field of a captured 0x4122 payload. Run with {@code -prof gc}
+ * to see allocation per call.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UtilBenchmark {
+    private static final int NAME_OFFSET = 4;
+    private static final int NAME_LENGTH = 16;
+
+    private ByteBuf frame;
+    private ByteBuf record;
+    private ByteBuf out;
+    private String name;
+
+    @Setup
+    public void setup() throws Exception {
+        Capture big = CapturedFrames.load("4b21.bin");
+        frame = PooledByteBufAllocator.DEFAULT.directBuffer(Packet.OFFSET_PAYLOAD + big.payload.length);
+        frame.writeZero(Packet.OFFSET_PAYLOAD).writeBytes(big.payload);
+
+        Capture character = CapturedFrames.load("4122.bin");
+        record = PooledByteBufAllocator.DEFAULT.directBuffer(character.payload.length);
+        record.writeBytes(character.payload);
+
+        record.readerIndex(NAME_OFFSET);
+        name = Util.readString(record, NAME_LENGTH);
+
+        out = PooledByteBufAllocator.DEFAULT.directBuffer(NAME_LENGTH);
+    }
+
+    @TearDown
+    public void tearDown() {
+        frame.release();
+        record.release();
+        out.release();
+    }
+
+    @Benchmark
+    public ByteBuf xor() {
+        Util.xor(frame, frame.readableBytes(), Util.KEY_XOR);
+        return frame;
+    }
+
+    @Benchmark
+    public String readString() {
+        record.readerIndex(NAME_OFFSET);
+        return Util.readString(record, NAME_LENGTH);
+    }
+
+    @Benchmark
+    public ByteBuf writeString() {
+        out.clear();
+        Util.writeString(name, NAME_LENGTH, out);
+        return out;
+    }
+
+    @Benchmark
+    public ByteBuf writeStringUtf8() {
+        out.clear();
+        Util.writeString(name, NAME_LENGTH, out, StandardCharsets.UTF_8);
+        return out;
+    }
+}
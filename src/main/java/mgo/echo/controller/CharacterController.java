@@ -29,6 +29,7 @@ import mgo.echo.handler.character.packet.SetsPacket;
 import mgo.echo.handler.character.packet.SkillsPacket;
 import mgo.echo.handler.character.packet.StatsPacket;
 import mgo.echo.handler.character.service.CharacterService;
+import mgo.echo.handler.character.service.CharacterNameIndex;
 import mgo.echo.handler.character.service.FriendsService;
 import mgo.echo.protocol.command.CharactersCmd;
 import mgo.echo.protocol.dispatch.Command;
@@ -472,15 +473,16 @@ public class CharacterController implements Controller {
             bi.readBoolean(); // caseSensitive (unused)
             String name = Util.readString(bi, 0x10);
 
-            List<Character> characters = CharacterService.searchCharacters(name, exactOnly);
-
             int maxEntries = 14;
             int entrySize = FriendsBlockedPacket.SEARCH_ENTRY_SIZE;
-            int count = Math.min(characters.size(), maxEntries);
+            List<CharacterNameIndex.Entry> characters = CharacterService.searchCharacters(name, exactOnly,
+                    maxEntries);
+            int count = characters.size();
 
             ByteBuf bo = ctx.nettyCtx().alloc().directBuffer(maxEntries * entrySize);
             for (int i = 0; i < count; i++) {
-                FriendsBlockedPacket.writeSearchEntry(bo, characters.get(i));
+                CharacterNameIndex.Entry character = characters.get(i);
+                FriendsBlockedPacket.writeSearchEntry(bo, character.getId(), character.getName());
             }
             bo.writeZero((maxEntries - count) * entrySize);
             payloads.set(new ByteBuf[] { bo });
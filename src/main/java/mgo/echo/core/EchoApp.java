@@ -19,15 +19,27 @@ import io.netty.util.concurrent.EventExecutorGroup;
 import mgo.echo.data.entity.Clan;
 import mgo.echo.data.entity.Lobby;
 import mgo.echo.data.entity.MessageClanApplication;
+import mgo.echo.data.repository.DbCache;
+import mgo.echo.data.repository.DbExecutor;
 import mgo.echo.data.repository.DbManager;
+import mgo.echo.data.repository.EventSink;
+import mgo.echo.data.repository.SessionTracker;
+import mgo.echo.handler.character.service.AnimalRankCache;
+import mgo.echo.handler.character.service.CharacterNameIndex;
 import mgo.echo.handler.game.service.GameService;
+import mgo.echo.handler.game.service.StatsBatcher;
+import mgo.echo.handler.lobby.GateResponses;
 import mgo.echo.handler.lobby.LobbyService;
+import mgo.echo.handler.social.service.ClanDirectory;
+import mgo.echo.handler.social.service.ClanEmblemCache;
 import mgo.echo.lobby.AccountLobby;
 import mgo.echo.lobby.BaseLobby;
 import mgo.echo.lobby.GameLobby;
 import mgo.echo.lobby.GateLobby;
 import mgo.echo.plugin.PluginHandler;
+import mgo.echo.protocol.PacketLog;
 import mgo.echo.session.ActiveLobbies;
+import mgo.echo.util.AssetStore;
 
 public class EchoApp {
     private static final Logger logger = LogManager.getLogger();
@@ -37,6 +49,10 @@ public class EchoApp {
     public static boolean BIND_ON_ALL = true;
     public static int DB_WORKERS = 10;
     public static int SERVER_WORKERS = 10;
+    public static boolean FRAME_DECODER = true;
+    public static int EVENT_BUFFER_SIZE = 4096;
+    public static boolean ASSETS_WATCH = false;
+    public static final String DB_CACHE_PROVIDER = "com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider";
 
     public void test() {
         Session session = null;
@@ -95,6 +111,20 @@ public class EchoApp {
             dbPoolMax = Integer.parseInt(properties.getProperty("dbPoolMax"));
             dbPoolIncrement = Integer.parseInt(properties.getProperty("dbPoolIncrement"));
             SERVER_WORKERS = Integer.parseInt(properties.getProperty("serverWorkers"));
+            FRAME_DECODER = !"legacy".equalsIgnoreCase(properties.getProperty("decoder", "frame"));
+            EVENT_BUFFER_SIZE = Integer.parseInt(properties.getProperty("eventBufferSize", "4096"));
+            ASSETS_WATCH = Boolean.parseBoolean(properties.getProperty("assetsWatch", "false"));
+            PacketLog.setSampleRate(Integer.parseInt(properties.getProperty("packetLogSample", "1")));
+            for (String command : properties.getProperty("packetLogCommands", "").split(",")) {
+                if (!command.isBlank()) {
+                    PacketLog.trace(Integer.decode(command.trim()), true);
+                }
+            }
+            ClanEmblemCache.configure(Long.parseLong(properties.getProperty("emblemCacheBytes", "8388608")));
+            String dbCache = properties.getProperty("dbCache", DB_CACHE_PROVIDER);
+            DbCache.configure("none".equalsIgnoreCase(dbCache) ? null : dbCache);
+            SessionTracker.configure(Boolean.parseBoolean(properties.getProperty("dbSessionTracking", "false")),
+                    Long.parseLong(properties.getProperty("dbSessionLongHeldMs", "5000")));
 
             String strLobbies = properties.getProperty("lobbies");
             String[] strsLobbies = strLobbies.split(",");
@@ -117,7 +147,13 @@ public class EchoApp {
 
         PluginHandler.get().getPlugin().initialize();
 
+        AssetStore.start(ASSETS_WATCH);
         DbManager.initialize(dbUrl, dbUser, dbPassword, dbPoolMin, dbPoolMax, dbPoolIncrement);
+        DbExecutor.start(DB_WORKERS);
+        EventSink.start(EVENT_BUFFER_SIZE);
+        AnimalRankCache.start();
+        ClanDirectory.start();
+        CharacterNameIndex.start();
 
         PluginHandler.get().getPlugin().onStart();
 
@@ -183,7 +219,13 @@ public class EchoApp {
 
             EchoService service = new EchoService(() -> {
                 LobbyService.updateLobbies();
+                GateResponses.refresh();
                 GameService.cleanup();
+                ClanDirectory.loadIfNotReady();
+                DbExecutor.logStats();
+                DbCache.logStats();
+                ClanEmblemCache.logStats();
+                SessionTracker.logLongHeld();
                 return true;
             }, 60);
             service.start();
@@ -208,6 +250,14 @@ public class EchoApp {
                 workerGroup.shutdownGracefully();
             }
 
+            GateResponses.clear();
+            AssetStore.stop();
+            ClanEmblemCache.stop();
+            AnimalRankCache.stop();
+            StatsBatcher.stop();
+            EventSink.stop();
+            DbExecutor.stop();
+
             logger.info("Shut down server.");
         }
     }
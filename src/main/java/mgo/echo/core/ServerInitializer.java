@@ -8,6 +8,7 @@ import io.netty.util.concurrent.EventExecutorGroup;
 import mgo.echo.lobby.BaseLobby;
 import mgo.echo.protocol.PacketDecoder;
 import mgo.echo.protocol.PacketEncoder;
+import mgo.echo.protocol.PacketFrameDecoder;
 
 public class ServerInitializer extends ChannelInitializer<SocketChannel> {
     private static final PacketEncoder HANDLER_ENCODER = new PacketEncoder();
@@ -25,7 +26,11 @@ public class ServerInitializer extends ChannelInitializer<SocketChannel> {
     public void initChannel(SocketChannel ch) throws Exception {
         ChannelPipeline pipeline = ch.pipeline();
         pipeline.addLast("encoder", HANDLER_ENCODER);
-        pipeline.addLast("decoder", HANDLER_DECODER);
+        if (EchoApp.FRAME_DECODER) {
+            pipeline.addLast("decoder", new PacketFrameDecoder());
+        } else {
+            pipeline.addLast("decoder", HANDLER_DECODER);
+        }
         pipeline.addLast("timeout", new ReadTimeoutHandler(60 * 2));
         pipeline.addLast(executorGroup, "lobby", lobby);
     }
@@ -15,6 +15,12 @@ import jakarta.persistence.OneToOne;
 import jakarta.persistence.Table;
 import jakarta.persistence.Transient;
 
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import mgo.echo.data.repository.DbCache;
+
 @Entity
 @Table(name = "mgo2_characters")
 public class Character {
@@ -36,7 +42,8 @@ public class Character {
     @Column(name = "old_name", length = 16, nullable = true)
     private String oldName;
 
-    @Column(name = "character_rank")
+    // Written only by the weekly animal rank job, see AnimalRankCache
+    @Column(name = "character_rank", updatable = false)
     private Integer rank = 0;
 
     @Column(length = 128)
@@ -66,42 +73,58 @@ public class Character {
     @OneToOne(fetch = FetchType.LAZY)
     private Lobby lobby;
 
+    @BatchSize(size = 32)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = DbCache.CHARACTER_APPEARANCE)
     @OneToMany(cascade = CascadeType.REMOVE, fetch = FetchType.LAZY, mappedBy = "character")
     private List<CharacterAppearance> appearance;
 
+    @BatchSize(size = 32)
     @OneToMany(cascade = CascadeType.REMOVE, fetch = FetchType.LAZY, mappedBy = "character")
     private List<CharacterBlocked> blocked;
 
+    @BatchSize(size = 32)
     @OneToMany(cascade = CascadeType.REMOVE, fetch = FetchType.LAZY, mappedBy = "character")
     private List<CharacterChatMacro> chatMacros;
 
+    @BatchSize(size = 32)
     @OneToMany(cascade = CascadeType.REMOVE, fetch = FetchType.LAZY, mappedBy = "character")
     private List<MessageClanApplication> clanApplication;
 
+    @BatchSize(size = 32)
     @OneToMany(cascade = CascadeType.REMOVE, fetch = FetchType.LAZY, mappedBy = "character")
     private List<ClanMember> clanMember;
 
+    @BatchSize(size = 32)
     @OneToMany(cascade = CascadeType.REMOVE, fetch = FetchType.LAZY, mappedBy = "character")
     private List<CharacterEquippedSkills> skills;
 
+    @BatchSize(size = 32)
     @OneToMany(cascade = CascadeType.REMOVE, fetch = FetchType.LAZY, mappedBy = "character")
     private List<CharacterFriend> friends;
 
+    @BatchSize(size = 32)
     @OneToMany(cascade = CascadeType.REMOVE, fetch = FetchType.LAZY, mappedBy = "character")
     private List<CharacterHostSettings> hostSettings;
 
+    @BatchSize(size = 32)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = DbCache.CHARACTER_SET_GEAR)
     @OneToMany(cascade = CascadeType.REMOVE, fetch = FetchType.LAZY, mappedBy = "character")
     private List<CharacterSetGear> setsGear;
 
+    @BatchSize(size = 32)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = DbCache.CHARACTER_SET_SKILLS)
     @OneToMany(cascade = CascadeType.REMOVE, fetch = FetchType.LAZY, mappedBy = "character")
     private List<CharacterSetSkills> setsSkills;
 
+    @BatchSize(size = 32)
     @OneToMany(cascade = CascadeType.REMOVE, fetch = FetchType.LAZY, mappedBy = "character")
     private List<ConnectionInfo> connectionInfo;
 
+    @BatchSize(size = 32)
     @OneToMany(cascade = CascadeType.REMOVE, fetch = FetchType.LAZY, mappedBy = "character")
     private List<Player> player;
 
+    @BatchSize(size = 32)
     @OneToMany(cascade = CascadeType.REMOVE, fetch = FetchType.LAZY, mappedBy = "character")
     private List<CharacterStats> stats;
 
@@ -1,5 +1,6 @@
 package mgo.echo.data.entity;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
@@ -11,8 +12,15 @@ import jakarta.persistence.OneToOne;
 import jakarta.persistence.Table;
 import jakarta.persistence.Version;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import mgo.echo.data.repository.DbCache;
+
 @Entity
 @Table(name = "mgo2_characters_sets_gear")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = DbCache.CHARACTER_SET_GEAR)
 public class CharacterSetGear {
     @Column(nullable = false, unique = true)
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -1,6 +1,7 @@
 package mgo.echo.data.entity;
 
 import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
@@ -270,42 +271,54 @@ public class CharacterStats {
     @Column(name = "time_dedi", nullable = false)
     private Integer timeDedi = 0;
 
-    // Per-Game Mode Stats (JSON format)
-    @Column(name = "stats_dm", columnDefinition = "TEXT")
-    private String statsDm;
+    // Per-Game Mode Stats (16 packed ints, see ModeStats)
+    @Column(name = "mode_dm", columnDefinition = "BINARY(64)")
+    @Convert(converter = ModeStatsConverter.class)
+    private ModeStats statsDm = new ModeStats();
 
-    @Column(name = "stats_tdm", columnDefinition = "TEXT")
-    private String statsTdm;
+    @Column(name = "mode_tdm", columnDefinition = "BINARY(64)")
+    @Convert(converter = ModeStatsConverter.class)
+    private ModeStats statsTdm = new ModeStats();
 
-    @Column(name = "stats_res", columnDefinition = "TEXT")
-    private String statsRes;
+    @Column(name = "mode_res", columnDefinition = "BINARY(64)")
+    @Convert(converter = ModeStatsConverter.class)
+    private ModeStats statsRes = new ModeStats();
 
-    @Column(name = "stats_cap", columnDefinition = "TEXT")
-    private String statsCap;
+    @Column(name = "mode_cap", columnDefinition = "BINARY(64)")
+    @Convert(converter = ModeStatsConverter.class)
+    private ModeStats statsCap = new ModeStats();
 
-    @Column(name = "stats_base", columnDefinition = "TEXT")
-    private String statsBase;
+    @Column(name = "mode_base", columnDefinition = "BINARY(64)")
+    @Convert(converter = ModeStatsConverter.class)
+    private ModeStats statsBase = new ModeStats();
 
-    @Column(name = "stats_bomb", columnDefinition = "TEXT")
-    private String statsBomb;
+    @Column(name = "mode_bomb", columnDefinition = "BINARY(64)")
+    @Convert(converter = ModeStatsConverter.class)
+    private ModeStats statsBomb = new ModeStats();
 
-    @Column(name = "stats_sne", columnDefinition = "TEXT")
-    private String statsSne;
+    @Column(name = "mode_sne", columnDefinition = "BINARY(64)")
+    @Convert(converter = ModeStatsConverter.class)
+    private ModeStats statsSne = new ModeStats();
 
-    @Column(name = "stats_tsne", columnDefinition = "TEXT")
-    private String statsTsne;
+    @Column(name = "mode_tsne", columnDefinition = "BINARY(64)")
+    @Convert(converter = ModeStatsConverter.class)
+    private ModeStats statsTsne = new ModeStats();
 
-    @Column(name = "stats_sdm", columnDefinition = "TEXT")
-    private String statsSdm;
+    @Column(name = "mode_sdm", columnDefinition = "BINARY(64)")
+    @Convert(converter = ModeStatsConverter.class)
+    private ModeStats statsSdm = new ModeStats();
 
-    @Column(name = "stats_int", columnDefinition = "TEXT")
-    private String statsInt;
+    @Column(name = "mode_int", columnDefinition = "BINARY(64)")
+    @Convert(converter = ModeStatsConverter.class)
+    private ModeStats statsInt = new ModeStats();
 
-    @Column(name = "stats_scap", columnDefinition = "TEXT")
-    private String statsScap;
+    @Column(name = "mode_scap", columnDefinition = "BINARY(64)")
+    @Convert(converter = ModeStatsConverter.class)
+    private ModeStats statsScap = new ModeStats();
 
-    @Column(name = "stats_race", columnDefinition = "TEXT")
-    private String statsRace;
+    @Column(name = "mode_race", columnDefinition = "BINARY(64)")
+    @Convert(converter = ModeStatsConverter.class)
+    private ModeStats statsRace = new ModeStats();
 
     // Unknown/Reserved fields
     @Column(nullable = false)
@@ -322,20 +335,6 @@ public class CharacterStats {
     private Integer lastUpdated;
 
     public CharacterStats() {
-        // Initialize default JSON stats
-        String defaultStats = "{\"wins\":0,\"rounds\":0,\"score\":0,\"time\":0,\"kills\":0,\"deaths\":0,\"stuns\":0,\"stunsRec\":0,\"hsKills\":0,\"hsDeaths\":0,\"hsStuns\":0,\"hsStunsRec\":0,\"lockKills\":0,\"lockDeaths\":0,\"lockStuns\":0,\"lockStunsRec\":0}";
-        this.statsDm = defaultStats;
-        this.statsTdm = defaultStats;
-        this.statsRes = defaultStats;
-        this.statsCap = defaultStats;
-        this.statsBase = defaultStats;
-        this.statsBomb = defaultStats;
-        this.statsSne = defaultStats;
-        this.statsTsne = defaultStats;
-        this.statsSdm = defaultStats;
-        this.statsInt = defaultStats;
-        this.statsScap = defaultStats;
-        this.statsRace = defaultStats;
     }
 
     // Getters and Setters
@@ -963,99 +962,99 @@ public class CharacterStats {
         this.timeDedi = timeDedi;
     }
 
-    public String getStatsDm() {
+    public ModeStats getStatsDm() {
         return statsDm;
     }
 
-    public void setStatsDm(String statsDm) {
+    public void setStatsDm(ModeStats statsDm) {
         this.statsDm = statsDm;
     }
 
-    public String getStatsTdm() {
+    public ModeStats getStatsTdm() {
         return statsTdm;
     }
 
-    public void setStatsTdm(String statsTdm) {
+    public void setStatsTdm(ModeStats statsTdm) {
         this.statsTdm = statsTdm;
     }
 
-    public String getStatsRes() {
+    public ModeStats getStatsRes() {
         return statsRes;
     }
 
-    public void setStatsRes(String statsRes) {
+    public void setStatsRes(ModeStats statsRes) {
         this.statsRes = statsRes;
     }
 
-    public String getStatsCap() {
+    public ModeStats getStatsCap() {
         return statsCap;
     }
 
-    public void setStatsCap(String statsCap) {
+    public void setStatsCap(ModeStats statsCap) {
         this.statsCap = statsCap;
     }
 
-    public String getStatsBase() {
+    public ModeStats getStatsBase() {
         return statsBase;
     }
 
-    public void setStatsBase(String statsBase) {
+    public void setStatsBase(ModeStats statsBase) {
         this.statsBase = statsBase;
     }
 
-    public String getStatsBomb() {
+    public ModeStats getStatsBomb() {
         return statsBomb;
     }
 
-    public void setStatsBomb(String statsBomb) {
+    public void setStatsBomb(ModeStats statsBomb) {
         this.statsBomb = statsBomb;
     }
 
-    public String getStatsSne() {
+    public ModeStats getStatsSne() {
         return statsSne;
     }
 
-    public void setStatsSne(String statsSne) {
+    public void setStatsSne(ModeStats statsSne) {
         this.statsSne = statsSne;
     }
 
-    public String getStatsTsne() {
+    public ModeStats getStatsTsne() {
         return statsTsne;
     }
 
-    public void setStatsTsne(String statsTsne) {
+    public void setStatsTsne(ModeStats statsTsne) {
         this.statsTsne = statsTsne;
     }
 
-    public String getStatsSdm() {
+    public ModeStats getStatsSdm() {
         return statsSdm;
     }
 
-    public void setStatsSdm(String statsSdm) {
+    public void setStatsSdm(ModeStats statsSdm) {
         this.statsSdm = statsSdm;
     }
 
-    public String getStatsInt() {
+    public ModeStats getStatsInt() {
         return statsInt;
     }
 
-    public void setStatsInt(String statsInt) {
+    public void setStatsInt(ModeStats statsInt) {
         this.statsInt = statsInt;
     }
 
-    public String getStatsScap() {
+    public ModeStats getStatsScap() {
         return statsScap;
     }
 
-    public void setStatsScap(String statsScap) {
+    public void setStatsScap(ModeStats statsScap) {
         this.statsScap = statsScap;
     }
 
-    public String getStatsRace() {
+    public ModeStats getStatsRace() {
         return statsRace;
     }
 
-    public void setStatsRace(String statsRace) {
+    public void setStatsRace(ModeStats statsRace) {
         this.statsRace = statsRace;
     }
 
@@ -1151,11 +1150,11 @@ public class CharacterStats {
     }
 
     /**
-     * Get the stats JSON string for a specific game mode
+     * Get the stats for a specific game mode
      * Game modes: 0=DM, 1=TDM, 2=SNE, 3=CAP, 4=BASE, 5=BOMB, 6=RES, 7=RACE, 8=TSNE,
      * 9=SDM, 10=SCAP
      */
-    public String getStatsByMode(int mode) {
+    public ModeStats getStatsByMode(int mode) {
         switch (mode) {
             case 0:
                 return statsDm;
@@ -1185,42 +1184,42 @@ public class CharacterStats {
     }
 
     /**
-     * Set the stats JSON string for a specific game mode
+     * Set the stats for a specific game mode
      */
-    public void setStatsByMode(int mode, String json) {
+    public void setStatsByMode(int mode, ModeStats stats) {
         switch (mode) {
             case 0:
-                statsDm = json;
+                statsDm = stats;
                 break;
             case 1:
-                statsTdm = json;
+                statsTdm = stats;
                 break;
             case 2:
-                statsSne = json;
+                statsSne = stats;
                 break;
             case 3:
-                statsCap = json;
+                statsCap = stats;
                 break;
             case 4:
-                statsBase = json;
+                statsBase = stats;
                 break;
             case 5:
-                statsBomb = json;
+                statsBomb = stats;
                 break;
             case 6:
-                statsRes = json;
+                statsRes = stats;
                 break;
             case 7:
-                statsRace = json;
+                statsRace = stats;
                 break;
             case 8:
-                statsTsne = json;
+                statsTsne = stats;
                 break;
             case 9:
-                statsSdm = json;
+                statsSdm = stats;
                 break;
             case 10:
-                statsScap = json;
+                statsScap = stats;
                 break;
         }
     }
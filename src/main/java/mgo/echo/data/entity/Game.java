@@ -2,6 +2,7 @@ package mgo.echo.data.entity;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReentrantLock;
 
 import jakarta.persistence.CascadeType;
@@ -21,6 +22,7 @@ import jakarta.persistence.Version;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+
 @Entity
 @Table(name = "mgo2_games")
 public class Game {
@@ -76,12 +78,20 @@ public class Game {
     @Column(length = 600, nullable = false)
     private String rules;
 
+    // Mapped only so removing a game removes its players; the live players
+    // are in the roster
     @OneToMany(cascade = CascadeType.REMOVE, fetch = FetchType.LAZY, mappedBy = "game")
     private List<Player> players;
 
     @Version
     private Integer version;
 
+    @Transient
+    private volatile PlayerRoster roster = PlayerRoster.EMPTY;
+
+    @Transient
+    private final Object rosterLock = new Object();
+
     @Transient
     private ReentrantLock playerLock = new ReentrantLock();
 
@@ -97,6 +107,25 @@ public class Game {
     @Transient
     private int lastNCheck = 0;
 
+    @Transient
+    private final AtomicInteger revision = new AtomicInteger();
+
+    @Transient
+    private byte[] listEntry;
+
+    @Transient
+    private int listEntryRevision = -1;
+
+    @Transient
+    private volatile ParsedConfig parsedConfig;
+
+    /**
+     * Parsed form of the common, rules and games JSON, built by the game
+     * handlers. Dropped whenever one of them is replaced.
+     */
+    public interface ParsedConfig {
+    }
+
     public Game() {
 
     }
@@ -131,6 +160,7 @@ public class Game {
 
     public void setName(String name) {
         this.name = name;
+        touch();
     }
 
     public String getPassword() {
@@ -139,6 +169,7 @@ public class Game {
 
     public void setPassword(String password) {
         this.password = password;
+        touch();
     }
 
     public String getComment() {
@@ -155,6 +186,7 @@ public class Game {
 
     public void setMaxPlayers(Integer maxPlayers) {
         this.maxPlayers = maxPlayers;
+        touch();
     }
 
     public Integer getCurrentGame() {
@@ -163,6 +195,7 @@ public class Game {
 
     public void setCurrentGame(Integer currentGame) {
         this.currentGame = currentGame;
+        touch();
     }
 
     public String getGames() {
@@ -171,6 +204,8 @@ public class Game {
 
     public void setGames(String games) {
         this.games = games;
+        this.parsedConfig = null;
+        touch();
     }
 
     public Integer getStance() {
@@ -179,6 +214,7 @@ public class Game {
 
     public void setStance(Integer stance) {
         this.stance = stance;
+        touch();
     }
 
     public Integer getPing() {
@@ -195,6 +231,8 @@ public class Game {
 
     public void setCommon(String common) {
         this.common = common;
+        this.parsedConfig = null;
+        touch();
     }
 
     public String getRules() {
@@ -203,6 +241,7 @@ public class Game {
 
     public void setRules(String rules) {
         this.rules = rules;
+        this.parsedConfig = null;
     }
 
     public Character getHost() {
@@ -211,6 +250,7 @@ public class Game {
 
     public void setHost(Character host) {
         this.host = host;
+        touch();
     }
 
     public Lobby getLobby() {
@@ -221,39 +261,96 @@ public class Game {
         this.lobby = lobby;
     }
 
+    /**
+     * Players in join order. A read-only snapshot; safe to iterate while
+     * players join and leave.
+     */
     public List<Player> getPlayers() {
-        return players;
+        return roster.list();
     }
 
     public void setPlayers(List<Player> players) {
-        this.players = players;
+        synchronized (rosterLock) {
+            PlayerRoster newRoster = PlayerRoster.EMPTY;
+            for (Player player : players) {
+                newRoster = newRoster.with(player);
+            }
+            roster = newRoster;
+        }
+        touch();
+    }
+
+    /**
+     * Snapshot of the players along with their count and average experience.
+     */
+    public PlayerRoster getRoster() {
+        return roster;
     }
 
     public void initPlayers() {
-        players = new ArrayList<Player>();
+        synchronized (rosterLock) {
+            roster = PlayerRoster.EMPTY;
+        }
+        touch();
         logger.info("Game {} ({}) | Initialized players.", name, id);
     }
 
     public void addPlayer(Player player) {
-        players.add(player);
+        synchronized (rosterLock) {
+            roster = roster.with(player);
+        }
+        touch();
         logger.info("Game {} ({}) | Added player: {}", name, id, player.getCharacterId());
     }
 
     public void removePlayer(Player player) {
-        players.remove(player);
+        synchronized (rosterLock) {
+            roster = roster.without(player);
+        }
+        touch();
         logger.info("Game {} ({}) | Removed player: {}", name, id, player.getCharacterId());
     }
 
     public Player getPlayerByCharacterId(int id) {
-        Player player = players.stream().filter((e) -> e.getCharacterId() == id).findAny().orElse(null);
-        if (player != null) {
-            logger.info("Game {} ({}) | Got player: {}", name, this.id, id);
-        } else {
-            logger.info("Game {} ({}) | Couldn't get player: {}", name, this.id, id);
+        Player player = roster.get(id);
+        if (player == null && logger.isDebugEnabled()) {
+            logger.debug("Game {} ({}) | Couldn't get player: {}", name, this.id, id);
         }
         return player;
     }
 
+    /**
+     * Bumped whenever a field shown in the game list changes, so cached list
+     * entries can tell they are stale.
+     */
+    public int getRevision() {
+        return revision.get();
+    }
+
+    public void touch() {
+        revision.incrementAndGet();
+    }
+
+    /**
+     * The encoded game list entry cached at the given revision, or null.
+     */
+    public synchronized byte[] getListEntry(int revision) {
+        return listEntryRevision == revision ? listEntry : null;
+    }
+
+    public synchronized void setListEntry(int revision, byte[] listEntry) {
+        this.listEntryRevision = revision;
+        this.listEntry = listEntry;
+    }
+
+    public ParsedConfig getParsedConfig() {
+        return parsedConfig;
+    }
+
+    public void setParsedConfig(ParsedConfig parsedConfig) {
+        this.parsedConfig = parsedConfig;
+    }
+
     public int getLastUpdate() {
         return lastUpdate;
     }
@@ -0,0 +1,126 @@
+package mgo.echo.data.entity;
+
+import java.util.Arrays;
+
+/**
+ * Per-game-mode stat totals, stored as 16 big-endian ints in a 64-byte column.
+ *
+ * Field order matches the old JSON layout (wins, rounds, score, ...) so rows
+ * can be converted with {@code db/migrations/001_mode_stats.sql}.
+ */
+public final class ModeStats {
+    public static final int WINS = 0;
+    public static final int ROUNDS = 1;
+    public static final int SCORE = 2;
+    public static final int TIME = 3;
+    public static final int KILLS = 4;
+    public static final int DEATHS = 5;
+    public static final int STUNS = 6;
+    public static final int STUNS_REC = 7;
+    public static final int HS_KILLS = 8;
+    public static final int HS_DEATHS = 9;
+    public static final int HS_STUNS = 10;
+    public static final int HS_STUNS_REC = 11;
+    public static final int LOCK_KILLS = 12;
+    public static final int LOCK_DEATHS = 13;
+    public static final int LOCK_STUNS = 14;
+    public static final int LOCK_STUNS_REC = 15;
+
+    public static final int FIELDS = 16;
+    public static final int BYTES = FIELDS * 4;
+
+    private final int[] values = new int[FIELDS];
+
+    public ModeStats() {
+    }
+
+    public int get(int field) {
+        return values[field];
+    }
+
+    public void set(int field, int value) {
+        values[field] = value;
+    }
+
+    public void add(int field, int value) {
+        values[field] += value;
+    }
+
+    public int getWins() {
+        return values[WINS];
+    }
+
+    public int getRounds() {
+        return values[ROUNDS];
+    }
+
+    public int getScore() {
+        return values[SCORE];
+    }
+
+    public int getTime() {
+        return values[TIME];
+    }
+
+    public int getKills() {
+        return values[KILLS];
+    }
+
+    public int getDeaths() {
+        return values[DEATHS];
+    }
+
+    public int getStuns() {
+        return values[STUNS];
+    }
+
+    public int getStunsRec() {
+        return values[STUNS_REC];
+    }
+
+    /**
+     * Decode a stored column; null or short values read as zero.
+     */
+    public static ModeStats fromBytes(byte[] bytes) {
+        ModeStats stats = new ModeStats();
+        if (bytes == null) {
+            return stats;
+        }
+
+        int fields = Math.min(FIELDS, bytes.length / 4);
+        for (int i = 0; i < fields; i++) {
+            int o = i * 4;
+            stats.values[i] = ((bytes[o] & 0xff) << 24) | ((bytes[o + 1] & 0xff) << 16)
+                    | ((bytes[o + 2] & 0xff) << 8) | (bytes[o + 3] & 0xff);
+        }
+        return stats;
+    }
+
+    public byte[] toBytes() {
+        byte[] bytes = new byte[BYTES];
+        for (int i = 0; i < FIELDS; i++) {
+            int v = values[i];
+            int o = i * 4;
+            bytes[o] = (byte) (v >>> 24);
+            bytes[o + 1] = (byte) (v >>> 16);
+            bytes[o + 2] = (byte) (v >>> 8);
+            bytes[o + 3] = (byte) v;
+        }
+        return bytes;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof ModeStats other && Arrays.equals(values, other.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(values);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(values);
+    }
+}
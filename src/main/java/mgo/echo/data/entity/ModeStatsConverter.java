@@ -0,0 +1,17 @@
+package mgo.echo.data.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+@Converter
+public class ModeStatsConverter implements AttributeConverter<ModeStats, byte[]> {
+    @Override
+    public byte[] convertToDatabaseColumn(ModeStats attribute) {
+        return attribute != null ? attribute.toBytes() : null;
+    }
+
+    @Override
+    public ModeStats convertToEntityAttribute(byte[] dbData) {
+        return ModeStats.fromBytes(dbData);
+    }
+}
@@ -0,0 +1,132 @@
+package mgo.echo.data.entity;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable snapshot of a game's players.
+ *
+ * Players are kept in join order alongside an open-addressed table from
+ * character id to slot, and the player count and average experience shown in
+ * the game list and details are computed when the snapshot is built. The game
+ * swaps in a new snapshot on every join and leave, so readers can hold and
+ * iterate one without locking.
+ */
+public final class PlayerRoster {
+    public static final PlayerRoster EMPTY = new PlayerRoster(new Player[0], new int[0]);
+
+    private final Player[] players;
+    private final int[] experience;
+    private final int[] keys;
+    private final int[] slots;
+    private final int averageExperience;
+    private final List<Player> view;
+
+    private PlayerRoster(Player[] players, int[] experience) {
+        this.players = players;
+        this.experience = experience;
+        this.view = Collections.unmodifiableList(Arrays.asList(players));
+
+        int capacity = Integer.highestOneBit(Math.max(4, players.length) * 2 - 1) << 1;
+        keys = new int[capacity];
+        slots = new int[capacity];
+        for (int i = 0; i < players.length; i++) {
+            int index = find(players[i].getCharacterId());
+            keys[index] = players[i].getCharacterId();
+            slots[index] = i + 1;
+        }
+
+        long totalExperience = 0;
+        for (int playerExperience : experience) {
+            totalExperience += playerExperience;
+        }
+        averageExperience = players.length > 0 ? (int) (totalExperience / players.length) : 0;
+    }
+
+    /**
+     * @return A roster with {@code player} added, replacing any player with the
+     *         same character id
+     */
+    public PlayerRoster with(Player player) {
+        PlayerRoster roster = without(get(player.getCharacterId()));
+
+        Player[] newPlayers = Arrays.copyOf(roster.players, roster.players.length + 1);
+        int[] newExperience = Arrays.copyOf(roster.experience, roster.experience.length + 1);
+        newPlayers[newPlayers.length - 1] = player;
+        newExperience[newExperience.length - 1] = experienceOf(player);
+
+        return new PlayerRoster(newPlayers, newExperience);
+    }
+
+    /**
+     * @return A roster without {@code player}, or this one if it isn't in it
+     */
+    public PlayerRoster without(Player player) {
+        if (player == null) {
+            return this;
+        }
+
+        int slot = slots[find(player.getCharacterId())] - 1;
+        if (slot < 0 || players[slot] != player) {
+            return this;
+        }
+
+        Player[] newPlayers = new Player[players.length - 1];
+        int[] newExperience = new int[experience.length - 1];
+        System.arraycopy(players, 0, newPlayers, 0, slot);
+        System.arraycopy(players, slot + 1, newPlayers, slot, newPlayers.length - slot);
+        System.arraycopy(experience, 0, newExperience, 0, slot);
+        System.arraycopy(experience, slot + 1, newExperience, slot, newExperience.length - slot);
+
+        return new PlayerRoster(newPlayers, newExperience);
+    }
+
+    public Player get(int charaId) {
+        int slot = slots[find(charaId)];
+        return slot > 0 ? players[slot - 1] : null;
+    }
+
+    /**
+     * @return The players in join order, as a read-only list
+     */
+    public List<Player> list() {
+        return view;
+    }
+
+    public int size() {
+        return players.length;
+    }
+
+    public int averageExperience() {
+        return averageExperience;
+    }
+
+    /**
+     * @return The table index holding {@code charaId}, or the empty one where
+     *         it would go
+     */
+    private int find(int charaId) {
+        int mask = keys.length - 1;
+        int hash = charaId * 0x9e3779b9;
+        int index = (hash ^ (hash >>> 16)) & mask;
+        while (slots[index] != 0 && keys[index] != charaId) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    private static int experienceOf(Player player) {
+        Character character = player.getCharacter();
+        User user = character != null ? character.getUser() : null;
+        if (user == null) {
+            return 0;
+        }
+
+        if (user.getMainCharacterId() != null && character.getId().equals(user.getMainCharacterId())) {
+            return user.getMainExp();
+        }
+
+        return user.getAltExp();
+    }
+}
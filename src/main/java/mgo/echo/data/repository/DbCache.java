@@ -0,0 +1,94 @@
+package mgo.echo.data.repository;
+
+import java.util.Properties;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+
+/**
+ * Second-level and query cache setup for read-mostly entities.
+ *
+ * Regions are backed by a JCache provider (Caffeine by default), and each
+ * region's size and expiry are set in {@code application.conf}. Writes made
+ * through Hibernate keep the regions current. Rows changed outside the server
+ * show up once their region expires. That includes the server's own raw JDBC
+ * writers, such as AnimalRankCache updating {@code mgo2_characters}, so cached
+ * queries must not join tables those writers touch.
+ */
+public class DbCache {
+    private static final Logger logger = LogManager.getLogger(DbCache.class);
+
+    public static final String NEWS = "echo-news";
+    public static final String LOBBY = "echo-lobby";
+    public static final String CLAN = "echo-clan";
+    public static final String CLAN_MEMBER = "echo-clan-member";
+    public static final String CHARACTER_APPEARANCE = "echo-character-appearance";
+    public static final String CHARACTER_SET_GEAR = "echo-character-set-gear";
+    public static final String CHARACTER_SET_SKILLS = "echo-character-set-skills";
+
+    public static final String QUERY_NEWS = "echo-query-news";
+
+    private static final String[] REGIONS = { NEWS, LOBBY, CLAN, CLAN_MEMBER, CHARACTER_APPEARANCE,
+            CHARACTER_SET_GEAR, CHARACTER_SET_SKILLS, QUERY_NEWS };
+
+    private static String provider;
+
+    private DbCache() {
+    }
+
+    /**
+     * Set the JCache provider class, or null to run without a second-level
+     * cache. Must be called before the session factory is built.
+     */
+    public static void configure(String provider) {
+        DbCache.provider = provider;
+    }
+
+    public static boolean isEnabled() {
+        return provider != null;
+    }
+
+    static void apply(Properties props) {
+        if (!isEnabled()) {
+            props.put("hibernate.cache.use_second_level_cache", "false");
+            props.put("hibernate.cache.use_query_cache", "false");
+            return;
+        }
+
+        props.put("hibernate.cache.use_second_level_cache", "true");
+        props.put("hibernate.cache.use_query_cache", "true");
+        props.put("hibernate.cache.region.factory_class", "jcache");
+        props.put("hibernate.javax.cache.provider", provider);
+        props.put("hibernate.javax.cache.missing_cache_strategy", "create");
+        // Inverse collections (Character.appearance etc.) aren't touched when a
+        // child row is added or removed; evict them with the child instead
+        props.put("hibernate.cache.auto_evict_collection_cache", "true");
+        props.put("hibernate.generate_statistics", "true");
+    }
+
+    public static void logStats() {
+        if (!isEnabled()) {
+            return;
+        }
+
+        try {
+            Statistics statistics = DbManager.getSessionFactory().getStatistics();
+            for (String region : REGIONS) {
+                CacheRegionStatistics stats = statistics.getCacheRegionStatistics(region);
+                if (stats == null) {
+                    continue;
+                }
+
+                long hits = stats.getHitCount();
+                long misses = stats.getMissCount();
+                long lookups = hits + misses;
+                logger.info("Cache {}: {} hits, {} misses, {} puts, {}% hit rate", region, hits, misses,
+                        stats.getPutCount(), lookups > 0 ? hits * 100 / lookups : 0);
+            }
+        } catch (Exception e) {
+            logger.error("Failed to log cache stats.", e);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package mgo.echo.data.repository;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import mgo.echo.core.EchoApp;
+
+/**
+ * Bounded pool for blocking database work, sized by {@code dbWorkers}.
+ *
+ * Keeps slow queries off the lobby executors. When both the workers and the
+ * queue are full, submissions are rejected rather than blocking the caller.
+ * Counters are exposed for monitoring and logged by {@link #logStats()}.
+ */
+public class DbExecutor {
+    private static final Logger logger = LogManager.getLogger(DbExecutor.class);
+
+    private static final int QUEUE_PER_WORKER = 64;
+
+    private static ThreadPoolExecutor pool;
+
+    private static final ThreadLocal<Boolean> worker = new ThreadLocal<>();
+
+    private static final AtomicLong submitted = new AtomicLong();
+    private static final AtomicLong completed = new AtomicLong();
+    private static final AtomicLong rejected = new AtomicLong();
+    private static final AtomicLong totalWaitNanos = new AtomicLong();
+    private static final AtomicLong maxWaitNanos = new AtomicLong();
+
+    public static synchronized void start(int workers) {
+        if (pool != null) {
+            return;
+        }
+
+        AtomicInteger counter = new AtomicInteger(1);
+        pool = new ThreadPoolExecutor(workers, workers, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(workers * QUEUE_PER_WORKER), (r) -> {
+                    Thread thread = new Thread(() -> {
+                        worker.set(Boolean.TRUE);
+                        r.run();
+                    }, "Db Worker " + counter.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        pool.allowCoreThreadTimeOut(true);
+
+        logger.info("Started db executor with {} workers.", workers);
+    }
+
+    public static synchronized void stop() {
+        if (pool == null) {
+            return;
+        }
+
+        pool.shutdown();
+        try {
+            if (!pool.awaitTermination(10, TimeUnit.SECONDS)) {
+                logger.warn("Db executor didn't finish in time, {} tasks dropped.", pool.shutdownNow().size());
+            }
+        } catch (InterruptedException e) {
+            pool.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+
+        pool = null;
+        logger.info("Stopped db executor.");
+    }
+
+    /**
+     * Executor for CompletableFuture stages. Starts the pool with the
+     * configured worker count on first use.
+     */
+    public static Executor get() {
+        return DbExecutor::execute;
+    }
+
+    /**
+     * @return Whether the calling thread is one of the pool's workers, where
+     *         waiting on other db executor work could deadlock
+     */
+    public static boolean isWorkerThread() {
+        return worker.get() != null;
+    }
+
+    private static void execute(Runnable task) {
+        ThreadPoolExecutor executor = pool;
+        if (executor == null) {
+            start(EchoApp.DB_WORKERS);
+            executor = pool;
+        }
+
+        long queuedAt = System.nanoTime();
+        try {
+            executor.execute(() -> {
+                recordWait(System.nanoTime() - queuedAt);
+                try {
+                    task.run();
+                } finally {
+                    completed.incrementAndGet();
+                }
+            });
+            submitted.incrementAndGet();
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            throw e;
+        }
+    }
+
+    private static void recordWait(long nanos) {
+        totalWaitNanos.addAndGet(nanos);
+        maxWaitNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    // ========================================================================
+    // Metrics
+    // ========================================================================
+
+    public static int getActiveCount() {
+        ThreadPoolExecutor executor = pool;
+        return executor != null ? executor.getActiveCount() : 0;
+    }
+
+    public static int getQueueDepth() {
+        ThreadPoolExecutor executor = pool;
+        return executor != null ? executor.getQueue().size() : 0;
+    }
+
+    public static long getSubmitted() {
+        return submitted.get();
+    }
+
+    public static long getCompleted() {
+        return completed.get();
+    }
+
+    public static long getRejected() {
+        return rejected.get();
+    }
+
+    public static long getMaxWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get());
+    }
+
+    public static long getAverageWaitMillis() {
+        long count = completed.get();
+        return count > 0 ? TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.get() / count) : 0;
+    }
+
+    public static void logStats() {
+        logger.info("Db executor: {} active, {} queued, {} submitted, {} completed, {} rejected, "
+                + "wait avg {} ms max {} ms", getActiveCount(), getQueueDepth(), getSubmitted(), getCompleted(),
+                getRejected(), getAverageWaitMillis(), getMaxWaitMillis());
+    }
+}
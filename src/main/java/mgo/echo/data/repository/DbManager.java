@@ -3,8 +3,9 @@ package mgo.echo.data.repository;
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.Statement;
-import java.util.HashMap;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
@@ -61,8 +62,6 @@ public class DbManager {
 
     private static SessionFactory sessionFactory;
 
-    public static HashMap<Session, String> sessionCheckouts = new HashMap<>();
-
     public static boolean initialize(String url, String user, String password, int minPoolSize, int maxPoolSize,
             int poolIncrement) {
         try {
@@ -97,6 +96,9 @@ public class DbManager {
             props.put("hibernate.dialect", "org.hibernate.dialect.MySQLDialect");
             props.put("hibernate.show_sql", "false");
             props.put("hibernate.format_sql", "false");
+            props.put("hibernate.jdbc.batch_size", "32");
+            props.put("hibernate.order_updates", "true");
+            DbCache.apply(props);
             configuration.setProperties(props);
 
             for (Class<?> clazz : entityClasses) {
@@ -183,20 +185,21 @@ public class DbManager {
     }
 
     public static Session getSession() {
-        String callerName = Thread.currentThread().getStackTrace()[2].getMethodName();
         Session session = getSessionFactory().getCurrentSession();
         if (session.getTransaction().isActive()) {
-            logger.error("Transaction is active on checkout! Last checked out by: {}", sessionCheckouts.get(session));
+            logger.error("Transaction is active on checkout! Last checked out by: {}",
+                    SessionTracker.lastCheckout(session));
         }
 
-        sessionCheckouts.put(session, callerName);
+        SessionTracker.onCheckout(session);
         return session;
     }
 
     public static void closeSession(Session session) {
         if (session != null && session.isOpen()) {
             if (session.getTransaction().isActive()) {
-                logger.error("Transaction is active on close! Last checked out by: {}", sessionCheckouts.get(session));
+                logger.error("Transaction is active on close! Last checked out by: {}",
+                        SessionTracker.lastCheckout(session));
             }
             try {
                 session.close();
@@ -205,7 +208,9 @@ public class DbManager {
             }
         }
 
-        sessionCheckouts.remove(session);
+        if (session != null) {
+            SessionTracker.onClose(session);
+        }
     }
 
     public static void rollbackAndClose(Session session) {
@@ -343,4 +348,46 @@ public class DbManager {
             throw new RuntimeException("Transaction failed", e);
         }
     }
+
+    // ========================================================================
+    // Async Transaction Wrappers - run on the DbExecutor
+    // ========================================================================
+
+    /**
+     * Run a transaction on the {@link DbExecutor} instead of the calling thread.
+     * The stage completes exceptionally if the transaction fails or the executor
+     * is saturated.
+     * 
+     * Usage:
+     * 
+     * <pre>
+     * DbManager.txAsync(session -> session.get(Clan.class, clanId))
+     *         .whenCompleteAsync((clan, error) -> { ... }, ctx.executor());
+     * </pre>
+     * 
+     * @param <T>  Return type
+     * @param work Function that receives Session and returns a result
+     * @return Stage completed with the result of the work function
+     */
+    public static <T> CompletionStage<T> txAsync(Function<Session, T> work) {
+        try {
+            return CompletableFuture.supplyAsync(() -> txOrThrow(work), DbExecutor.get());
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Run a void transaction on the {@link DbExecutor}.
+     * 
+     * @param work Consumer that receives Session
+     * @return Stage completed when the transaction commits
+     */
+    public static CompletionStage<Void> txVoidAsync(Consumer<Session> work) {
+        try {
+            return CompletableFuture.runAsync(() -> txVoidOrThrow(work), DbExecutor.get());
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
 }
@@ -0,0 +1,266 @@
+package mgo.echo.data.repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.lmax.disruptor.BlockingWaitStrategy;
+import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.EventTranslatorOneArg;
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.TimeoutException;
+import com.lmax.disruptor.dsl.Disruptor;
+import com.lmax.disruptor.dsl.ProducerType;
+
+import mgo.echo.data.entity.EventConnectGame;
+import mgo.echo.data.entity.EventCreateGame;
+import mgo.echo.data.entity.EventDisconnectGame;
+import mgo.echo.data.entity.EventEndGame;
+
+/**
+ * Write-behind sink for game event rows.
+ *
+ * Events are queued in a bounded ring buffer and inserted in JDBC batches on a
+ * single "Event Sink" thread, so lobby threads never wait on MySQL. When the
+ * buffer is full, publishers block until there is room. A batch that fails to
+ * commit is retried with a doubling backoff before it's dropped. Stopping the
+ * sink drains whatever is queued. If the sink isn't running, events are saved
+ * synchronously.
+ */
+public class EventSink {
+    private static final Logger logger = LogManager.getLogger(EventSink.class);
+
+    private static final int MAX_BATCH = 256;
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+    private static final int MAX_ATTEMPTS = 5;
+    private static final long RETRY_DELAY_MS = 100;
+
+    private static final String SQL_CONNECT = "INSERT INTO mgo2_event_connectgame (time, game, chara) "
+            + "VALUES (?, ?, ?)";
+    private static final String SQL_DISCONNECT = "INSERT INTO mgo2_event_disconnectgame (time, game, chara) "
+            + "VALUES (?, ?, ?)";
+    private static final String SQL_END = "INSERT INTO mgo2_event_endgame (time, game) VALUES (?, ?)";
+    private static final String SQL_CREATE = "INSERT INTO mgo2_event_creategame (time, game, host, lobby, name) "
+            + "VALUES (?, ?, ?, ?, ?)";
+
+    private static final EventTranslatorOneArg<Slot, Object> TRANSLATOR = (slot, sequence,
+            event) -> slot.event = event;
+
+    private static Disruptor<Slot> disruptor;
+    private static RingBuffer<Slot> ringBuffer;
+
+    private static final class Slot {
+        private Object event;
+    }
+
+    public static synchronized void start(int bufferSize) {
+        if (disruptor != null) {
+            return;
+        }
+
+        disruptor = new Disruptor<>(Slot::new, bufferSize, (r) -> {
+            Thread thread = new Thread(r, "Event Sink");
+            thread.setDaemon(true);
+            return thread;
+        }, ProducerType.MULTI, new BlockingWaitStrategy());
+        disruptor.handleEventsWith(new BatchWriter());
+        ringBuffer = disruptor.start();
+
+        Runtime.getRuntime().addShutdownHook(new Thread(EventSink::stop, "Event Sink Shutdown"));
+        logger.info("Started event sink with {} slots.", bufferSize);
+    }
+
+    /**
+     * Drain queued events and stop the sink thread.
+     */
+    public static synchronized void stop() {
+        if (disruptor == null) {
+            return;
+        }
+
+        RingBuffer<Slot> buffer = ringBuffer;
+        ringBuffer = null;
+
+        try {
+            disruptor.shutdown(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            logger.error("Timed out draining event sink, {} events dropped.",
+                    buffer.getBufferSize() - buffer.remainingCapacity());
+            disruptor.halt();
+        }
+
+        disruptor = null;
+        logger.info("Stopped event sink.");
+    }
+
+    public static void publish(EventConnectGame event) {
+        enqueue(event);
+    }
+
+    public static void publish(EventDisconnectGame event) {
+        enqueue(event);
+    }
+
+    public static void publish(EventEndGame event) {
+        enqueue(event);
+    }
+
+    public static void publish(EventCreateGame event) {
+        enqueue(event);
+    }
+
+    private static void enqueue(Object event) {
+        RingBuffer<Slot> buffer = ringBuffer;
+        if (buffer == null) {
+            DbManager.txVoid(session -> session.persist(event));
+            return;
+        }
+
+        if (!buffer.tryPublishEvent(TRANSLATOR, event)) {
+            logger.warn("Event sink is full, waiting for space.");
+            buffer.publishEvent(TRANSLATOR, event);
+        }
+    }
+
+    // ========================================================================
+    // Writer
+    // ========================================================================
+
+    private static final class BatchWriter implements EventHandler<Slot> {
+        private final List<Object> pending = new ArrayList<>(MAX_BATCH);
+
+        @Override
+        public void onEvent(Slot slot, long sequence, boolean endOfBatch) {
+            pending.add(slot.event);
+            slot.event = null;
+
+            if (endOfBatch || pending.size() >= MAX_BATCH) {
+                flush();
+            }
+        }
+
+        @Override
+        public void onShutdown() {
+            flush();
+        }
+
+        private void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+
+            long delay = RETRY_DELAY_MS;
+            for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+                if (write(attempt)) {
+                    pending.clear();
+                    return;
+                }
+
+                if (attempt == MAX_ATTEMPTS) {
+                    break;
+                }
+
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                delay *= 2;
+            }
+
+            logger.error("Dropped {} events after failing to write them.", pending.size());
+            pending.clear();
+        }
+
+        private boolean write(int attempt) {
+            Connection conn = null;
+            PreparedStatement connect = null, disconnect = null, end = null, create = null;
+            try {
+                conn = DbManager.get();
+                conn.setAutoCommit(false);
+
+                connect = conn.prepareStatement(SQL_CONNECT);
+                disconnect = conn.prepareStatement(SQL_DISCONNECT);
+                end = conn.prepareStatement(SQL_END);
+                create = conn.prepareStatement(SQL_CREATE);
+
+                for (Object event : pending) {
+                    if (event instanceof EventConnectGame e) {
+                        connect.setInt(1, e.getTime());
+                        connect.setInt(2, e.getGameId());
+                        connect.setInt(3, e.getCharaId());
+                        connect.addBatch();
+                    } else if (event instanceof EventDisconnectGame e) {
+                        disconnect.setInt(1, e.getTime());
+                        disconnect.setInt(2, e.getGameId());
+                        disconnect.setInt(3, e.getCharaId());
+                        disconnect.addBatch();
+                    } else if (event instanceof EventEndGame e) {
+                        end.setInt(1, e.getTime());
+                        end.setInt(2, e.getGameId());
+                        end.addBatch();
+                    } else if (event instanceof EventCreateGame e) {
+                        create.setInt(1, e.getTime());
+                        create.setInt(2, e.getGameId());
+                        create.setInt(3, e.getHostId());
+                        create.setInt(4, e.getLobbyId());
+                        create.setString(5, e.getName());
+                        create.addBatch();
+                    }
+                }
+
+                create.executeBatch();
+                connect.executeBatch();
+                disconnect.executeBatch();
+                end.executeBatch();
+                conn.commit();
+
+                logger.debug("Wrote {} events.", pending.size());
+                return true;
+            } catch (Exception e) {
+                logger.error("Failed to write {} events (attempt {} of {}).", pending.size(), attempt, MAX_ATTEMPTS,
+                        e);
+                rollback(conn);
+                return false;
+            } finally {
+                DbManager.close(null, connect);
+                DbManager.close(null, disconnect);
+                DbManager.close(null, end);
+                DbManager.close(null, create);
+                restoreAutoCommit(conn);
+                DbManager.close(conn);
+            }
+        }
+
+        private void rollback(Connection conn) {
+            if (conn == null) {
+                return;
+            }
+
+            try {
+                conn.rollback();
+            } catch (SQLException e) {
+                // Ignored
+            }
+        }
+
+        private void restoreAutoCommit(Connection conn) {
+            if (conn == null) {
+                return;
+            }
+
+            try {
+                conn.setAutoCommit(true);
+            } catch (SQLException e) {
+                // Ignored
+            }
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package mgo.echo.data.repository;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.hibernate.Session;
+
+/**
+ * Optional bookkeeping of which code checked out each Hibernate session.
+ *
+ * Off by default; enable with {@code dbSessionTracking=true}. When off, every
+ * call is a no-op apart from a volatile read. When on, the caller is found with
+ * a {@link StackWalker} and sessions held longer than the threshold can be
+ * reported with {@link #logLongHeld()}.
+ */
+public class SessionTracker {
+    private static final Logger logger = LogManager.getLogger(SessionTracker.class);
+
+    private static final StackWalker WALKER = StackWalker.getInstance();
+
+    private static volatile boolean enabled = false;
+    private static volatile long longHeldNanos = TimeUnit.SECONDS.toNanos(5);
+
+    private static final ConcurrentHashMap<Session, Checkout> checkouts = new ConcurrentHashMap<>();
+    private static final AtomicLong checkoutCount = new AtomicLong();
+    private static final AtomicLong longHeldCount = new AtomicLong();
+
+    private static final class Checkout {
+        private final String caller;
+        private final String thread;
+        private final long since;
+
+        private Checkout(String caller, String thread, long since) {
+            this.caller = caller;
+            this.thread = thread;
+            this.since = since;
+        }
+
+        @Override
+        public String toString() {
+            return caller + " on " + thread;
+        }
+    }
+
+    public static void configure(boolean enabled, long longHeldMillis) {
+        SessionTracker.longHeldNanos = TimeUnit.MILLISECONDS.toNanos(longHeldMillis);
+        SessionTracker.enabled = enabled;
+        if (!enabled) {
+            checkouts.clear();
+        }
+        logger.info("Session tracking {}.", enabled ? "enabled" : "disabled");
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    static void onCheckout(Session session) {
+        if (!enabled) {
+            return;
+        }
+
+        checkoutCount.incrementAndGet();
+        checkouts.put(session, new Checkout(findCaller(), Thread.currentThread().getName(), System.nanoTime()));
+    }
+
+    static void onClose(Session session) {
+        if (!enabled) {
+            return;
+        }
+
+        Checkout checkout = checkouts.remove(session);
+        if (checkout == null) {
+            return;
+        }
+
+        long held = System.nanoTime() - checkout.since;
+        if (held >= longHeldNanos) {
+            longHeldCount.incrementAndGet();
+            logger.warn("Session held for {} ms by {}", TimeUnit.NANOSECONDS.toMillis(held), checkout);
+        }
+    }
+
+    /**
+     * Who last checked out the session, for diagnostics.
+     */
+    static String lastCheckout(Session session) {
+        if (!enabled) {
+            return "(tracking disabled)";
+        }
+
+        Checkout checkout = checkouts.get(session);
+        return checkout != null ? checkout.toString() : "(unknown)";
+    }
+
+    private static String findCaller() {
+        Optional<StackWalker.StackFrame> frame = WALKER.walk(frames -> frames
+                .filter(f -> !f.getClassName().startsWith(DbManager.class.getPackageName()))
+                .findFirst());
+        return frame.map(f -> f.getClassName() + "." + f.getMethodName() + ":" + f.getLineNumber())
+                .orElse("(unknown)");
+    }
+
+    // ========================================================================
+    // Metrics
+    // ========================================================================
+
+    public static int getOpenCount() {
+        return checkouts.size();
+    }
+
+    public static long getCheckoutCount() {
+        return checkoutCount.get();
+    }
+
+    public static long getLongHeldCount() {
+        return longHeldCount.get();
+    }
+
+    /**
+     * Log sessions that have been open longer than the threshold; these are
+     * likely leaks.
+     */
+    public static void logLongHeld() {
+        if (!enabled) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        int count = 0;
+        for (Map.Entry<Session, Checkout> entry : checkouts.entrySet()) {
+            Checkout checkout = entry.getValue();
+            long held = now - checkout.since;
+            if (held < longHeldNanos) {
+                continue;
+            }
+
+            count++;
+            logger.warn("Session open for {} ms, checked out by {}", TimeUnit.NANOSECONDS.toMillis(held),
+                    checkout);
+        }
+
+        logger.info("Sessions: {} open, {} held too long, {} checkouts, {} long-held closes", getOpenCount(),
+                count, getCheckoutCount(), getLongHeldCount());
+    }
+}
@@ -87,6 +87,7 @@ public class AccountService {
             user.setCurrentCharacter(null);
             session.update(user);
         });
+        ActiveUsers.updateCharacter(user);
     }
 
     // ========================================================================
@@ -95,11 +96,23 @@ public class AccountService {
 
     public static boolean connectToLobby(ChannelHandlerContext ctx, Lobby lobby, User user) {
         try {
+            Character character = null;
+            if (user.getCurrentCharacterId() != null) {
+                character = LobbyCharacterLoader.load(user.getCurrentCharacterId());
+                if (character != null) {
+                    character.setUser(user);
+                    user.setCurrentCharacter(character);
+                }
+            }
+
+            Character lobbyCharacter = character;
             DbManager.txVoid(session -> {
                 session.update(user);
 
-                if (user.getCurrentCharacterId() != null && user.getCurrentCharacter() != null) {
-                    initializeCharacterForLobby(session, user.getCurrentCharacter(), lobby);
+                if (lobbyCharacter != null) {
+                    lobbyCharacter.setLobby(lobby);
+                    lobbyCharacter.setLobbyId(lobby.getId());
+                    session.update(lobbyCharacter);
                 }
             });
 
@@ -116,37 +129,13 @@ public class AccountService {
         }
     }
 
-    private static void initializeCharacterForLobby(Session session, Character character, Lobby lobby) {
-        Hibernate.initialize(character);
-        character.setLobby(lobby);
-        character.setLobbyId(lobby.getId());
-
-        Hibernate.initialize(character.getAppearance());
-        Hibernate.initialize(character.getBlocked());
-        Hibernate.initialize(character.getChatMacros());
-        Hibernate.initialize(character.getClanApplication());
-        Hibernate.initialize(character.getClanMember());
-
-        ClanMember clanMember = Util.getFirstOrNull(character.getClanMember());
-        if (clanMember != null) {
-            Hibernate.initialize(clanMember.getClan());
-        }
-
-        Hibernate.initialize(character.getConnectionInfo());
-        Hibernate.initialize(character.getFriends());
-        Hibernate.initialize(character.getHostSettings());
-        Hibernate.initialize(character.getPlayer());
-        Hibernate.initialize(character.getSetsGear());
-        Hibernate.initialize(character.getSetsSkills());
-        Hibernate.initialize(character.getSkills());
-
-        session.update(character);
-    }
-
     private static void closePreviousSessions(ChannelHandlerContext ctx, User user) {
         try {
-            List<User> duplicates = ActiveUsers
-                    .get(u -> u != null && u.getId() != null && u.getId().equals(user.getId()));
+            if (user.getId() == null) {
+                return;
+            }
+
+            List<User> duplicates = ActiveUsers.getByUserId(user.getId());
 
             for (User online : duplicates) {
                 Channel oldChannel = online.getChannel();
@@ -12,6 +12,9 @@ import mgo.echo.data.entity.Character;
 import mgo.echo.data.entity.CharacterAppearance;
 import mgo.echo.data.entity.User;
 import mgo.echo.data.repository.DbManager;
+import mgo.echo.handler.character.service.CharacterNameIndex;
+import mgo.echo.handler.social.service.ClanDirectory;
+import mgo.echo.session.ActiveUsers;
 import mgo.echo.util.Error;
 import mgo.echo.util.Util;
 
@@ -84,6 +87,10 @@ public class CharacterCrudService {
     }
 
     public static boolean isNameTaken(String name) {
+        if (CharacterNameIndex.isReady()) {
+            return CharacterNameIndex.contains(name);
+        }
+
         Character existing = DbManager.tx(session -> {
             Query<Character> query = session.createQuery("from Character c where c.name = :name", Character.class);
             query.setParameter("name", name);
@@ -110,11 +117,14 @@ public class CharacterCrudService {
             user.setMainCharacter(character);
         }
 
-        DbManager.txVoid(session -> {
+        if (DbManager.txVoid(session -> {
             session.save(character);
             session.save(appearance);
             session.update(user);
-        });
+        })) {
+            CharacterNameIndex.put(character.getId(), name);
+        }
+        ActiveUsers.updateCharacter(user);
 
         return character;
     }
@@ -138,6 +148,7 @@ public class CharacterCrudService {
         user.setCurrentCharacter(character);
 
         DbManager.txVoid(session -> session.update(user));
+        ActiveUsers.updateCharacter(user);
 
         return character;
     }
@@ -218,7 +229,10 @@ public class CharacterCrudService {
         character.setOldName(character.getName());
         character.setName(":#" + character.getId());
 
-        DbManager.txVoid(session -> session.update(character));
+        if (DbManager.txVoid(session -> session.update(character))) {
+            CharacterNameIndex.put(character.getId(), character.getName());
+            ClanDirectory.renameLeader(character.getId(), character.getName());
+        }
     }
 
     private static void clearMainCharacterIfNeeded(User user, Character character) {
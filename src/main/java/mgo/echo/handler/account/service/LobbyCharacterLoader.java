@@ -0,0 +1,177 @@
+package mgo.echo.handler.account.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
+
+import mgo.echo.data.entity.Character;
+import mgo.echo.data.repository.DbExecutor;
+import mgo.echo.data.repository.DbManager;
+
+/**
+ * Loads the character graph the lobby needs after login.
+ *
+ * Requests that arrive while a load is running are collected and loaded
+ * together on the db executor. One query fetches the characters with their
+ * clan membership and clan. Each remaining collection is then one query for
+ * the whole batch, through the {@code @BatchSize} on {@link Character}. A
+ * single login costs 12 queries instead of 14; a batch of 32 logins costs
+ * the same 12. A login that waits too long for its batch, or that comes from
+ * a db executor thread, loads its character on the calling thread instead.
+ */
+public class LobbyCharacterLoader {
+    private static final Logger logger = LogManager.getLogger(LobbyCharacterLoader.class);
+
+    /** Keep in step with the {@code @BatchSize} on Character's collections. */
+    public static final int MAX_BATCH = 32;
+
+    private static final long WAIT_MS = 2000;
+
+    private static final Object lock = new Object();
+    private static List<Request> pending = new ArrayList<>();
+    private static boolean draining = false;
+
+    private static final class Request {
+        private final int charaId;
+        private final CompletableFuture<Character> future = new CompletableFuture<>();
+
+        private Request(int charaId) {
+            this.charaId = charaId;
+        }
+    }
+
+    /**
+     * Load a character with every association the lobby uses initialized.
+     * Waits up to {@link #WAIT_MS} for the batch containing it, then loads it
+     * inline. On a db executor thread it's always loaded inline, since waiting
+     * there could deadlock.
+     *
+     * @return The detached character, or null if it doesn't exist
+     */
+    public static Character load(int charaId) {
+        if (DbExecutor.isWorkerThread()) {
+            return loadInline(charaId);
+        }
+
+        Request request = new Request(charaId);
+
+        boolean start;
+        synchronized (lock) {
+            pending.add(request);
+            start = !draining;
+            draining = true;
+        }
+
+        if (start) {
+            try {
+                DbExecutor.get().execute(LobbyCharacterLoader::drain);
+            } catch (Exception e) {
+                synchronized (lock) {
+                    draining = false;
+                }
+                logger.warn("Couldn't queue character load, loading inline.", e);
+                drain();
+            }
+        }
+
+        try {
+            return request.future.get(WAIT_MS, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            logger.warn("Character {} wasn't loaded within {} ms, loading inline.", charaId, WAIT_MS);
+            return loadInline(charaId);
+        } catch (ExecutionException e) {
+            throw new CompletionException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        }
+    }
+
+    private static Character loadInline(int charaId) {
+        return DbManager.txOrThrow(session -> fetch(session, Set.of(charaId))).get(charaId);
+    }
+
+    private static void drain() {
+        while (true) {
+            List<Request> batch;
+            synchronized (lock) {
+                if (pending.isEmpty()) {
+                    draining = false;
+                    return;
+                }
+
+                if (pending.size() <= MAX_BATCH) {
+                    batch = pending;
+                    pending = new ArrayList<>();
+                } else {
+                    batch = new ArrayList<>(pending.subList(0, MAX_BATCH));
+                    pending.subList(0, MAX_BATCH).clear();
+                }
+            }
+
+            loadBatch(batch);
+        }
+    }
+
+    private static void loadBatch(List<Request> batch) {
+        try {
+            Set<Integer> ids = new HashSet<>();
+            for (Request request : batch) {
+                ids.add(request.charaId);
+            }
+
+            Map<Integer, Character> characters = DbManager.txOrThrow(session -> fetch(session, ids));
+            for (Request request : batch) {
+                request.future.complete(characters.get(request.charaId));
+            }
+
+            logger.debug("Loaded {} characters for lobby.", characters.size());
+        } catch (Exception e) {
+            for (Request request : batch) {
+                request.future.completeExceptionally(e);
+            }
+        }
+    }
+
+    private static Map<Integer, Character> fetch(Session session, Set<Integer> ids) {
+        List<Character> list = session.createQuery(
+                "select c from Character c " +
+                        "left join fetch c.clanMember cm " +
+                        "left join fetch cm.clan " +
+                        "where c.id in :ids",
+                Character.class)
+                .setParameter("ids", ids)
+                .list();
+
+        // Initializing one character's collection batch-loads it for the rest
+        Map<Integer, Character> characters = new HashMap<>();
+        for (Character character : list) {
+            Hibernate.initialize(character.getAppearance());
+            Hibernate.initialize(character.getBlocked());
+            Hibernate.initialize(character.getChatMacros());
+            Hibernate.initialize(character.getClanApplication());
+            Hibernate.initialize(character.getConnectionInfo());
+            Hibernate.initialize(character.getFriends());
+            Hibernate.initialize(character.getHostSettings());
+            Hibernate.initialize(character.getPlayer());
+            Hibernate.initialize(character.getSetsGear());
+            Hibernate.initialize(character.getSetsSkills());
+            Hibernate.initialize(character.getSkills());
+            characters.put(character.getId(), character);
+        }
+        return characters;
+    }
+}
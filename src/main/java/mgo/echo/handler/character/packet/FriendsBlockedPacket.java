@@ -4,6 +4,7 @@ import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import mgo.echo.data.entity.Character;
 import mgo.echo.data.entity.Game;
+import mgo.echo.data.entity.Lobby;
 import mgo.echo.data.entity.Player;
 import mgo.echo.data.entity.User;
 import mgo.echo.session.ActiveUsers;
@@ -104,18 +105,19 @@ public class FriendsBlockedPacket {
     /**
      * Write a search result entry
      */
-    public static void writeSearchEntry(ByteBuf bo, Character character) {
-        bo.writeInt(character.getId());
-        Util.writeString(character.getName(), 16, bo);
+    public static void writeSearchEntry(ByteBuf bo, int characterId, String name) {
+        bo.writeInt(characterId);
+        Util.writeString(name, 16, bo);
 
         int lobbyId = 0;
         String lobbyName = "";
-        if (character.getLobby() != null) {
-            lobbyId = character.getLobbyId();
-            lobbyName = character.getLobby().getName();
+        Lobby lobby = getOnlineLobby(characterId);
+        if (lobby != null) {
+            lobbyId = lobby.getId();
+            lobbyName = lobby.getName();
         }
 
-        GameInfo gameInfo = getGameInfo(character.getId());
+        GameInfo gameInfo = getGameInfo(characterId);
 
         bo.writeShort(lobbyId);
         Util.writeString(lobbyName, 16, bo);
@@ -125,6 +127,19 @@ public class FriendsBlockedPacket {
         bo.writeByte(gameInfo.gameType);
     }
 
+    /**
+     * Get the lobby a character is connected to, from the session registry
+     */
+    private static Lobby getOnlineLobby(int characterId) {
+        User userTarget = ActiveUsers.getByCharacterId(characterId);
+        if (userTarget == null) {
+            return null;
+        }
+
+        Character characterTarget = userTarget.getCurrentCharacter();
+        return characterTarget != null ? characterTarget.getLobby() : null;
+    }
+
     /**
      * Get game info for a character (if they're in a game)
      */
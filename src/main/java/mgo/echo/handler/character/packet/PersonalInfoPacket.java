@@ -13,6 +13,7 @@ import mgo.echo.data.entity.CharacterAppearance;
 import mgo.echo.data.entity.CharacterEquippedSkills;
 import mgo.echo.data.entity.Clan;
 import mgo.echo.data.entity.ClanMember;
+import mgo.echo.handler.character.service.AnimalRankCache;
 import mgo.echo.handler.character.service.CharacterService;
 import mgo.echo.protocol.Packet;
 import mgo.echo.protocol.command.CharactersCmd;
@@ -65,7 +66,7 @@ public final class PersonalInfoPacket {
             writeSkillExp(bo);
             bo.writeInt(rwd);
             writeComment(bo, character);
-            bo.writeByte(character.getRank());
+            bo.writeByte(AnimalRankCache.get(character));
             writeClanEmblemFlag(bo, clan);
             bo.writeBytes(BYTES_3);
 
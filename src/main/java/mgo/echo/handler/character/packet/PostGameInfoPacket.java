@@ -9,6 +9,7 @@ import mgo.echo.data.entity.Character;
 import mgo.echo.data.entity.Clan;
 import mgo.echo.data.entity.ClanMember;
 import mgo.echo.data.entity.User;
+import mgo.echo.handler.character.service.AnimalRankCache;
 import mgo.echo.protocol.command.CharactersCmd;
 import mgo.echo.util.Error;
 import mgo.echo.util.Packets;
@@ -40,7 +41,7 @@ public final class PostGameInfoPacket {
 
             bo = ctx.alloc().directBuffer(BUFFER_SIZE);
 
-            bo.writeInt(0).writeByte(character.getRank());
+            bo.writeInt(0).writeByte(AnimalRankCache.get(character));
             bo.writeInt(experience);
             bo.writeZero(1);
 
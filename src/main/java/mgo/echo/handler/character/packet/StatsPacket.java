@@ -3,12 +3,11 @@ package mgo.echo.handler.character.packet;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import com.google.gson.JsonObject;
-
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import mgo.echo.data.entity.Character;
 import mgo.echo.data.entity.CharacterStats;
+import mgo.echo.data.entity.ModeStats;
 import mgo.echo.protocol.command.CharactersCmd;
 import mgo.echo.util.Error;
 import mgo.echo.util.Packets;
@@ -171,48 +170,29 @@ public final class StatsPacket {
     }
 
     private static void writeModeStatsBlock(ByteBuf buf, CharacterStats stats, int mode) {
-        if (stats == null) {
+        ModeStats modeStats = stats != null ? stats.getStatsByMode(mode) : null;
+        if (modeStats == null) {
             buf.writeZero(MODE_STATS_BLOCK_SIZE);
             return;
         }
 
-        try {
-            String json = stats.getStatsByMode(mode);
-            if (json == null || json.isEmpty()) {
-                buf.writeZero(MODE_STATS_BLOCK_SIZE);
-                return;
-            }
-
-            JsonObject modeStats = Util.jsonDecode(json);
-
-            buf.writeInt(getJsonInt(modeStats, "kills"));
-            buf.writeInt(getJsonInt(modeStats, "deaths"));
-            buf.writeInt(getJsonInt(modeStats, "lockKills"));
-            buf.writeInt(getJsonInt(modeStats, "score"));
-            buf.writeInt(getJsonInt(modeStats, "stuns"));
-            buf.writeInt(getJsonInt(modeStats, "stunsRec"));
-            buf.writeInt(getJsonInt(modeStats, "hsKills"));
-            buf.writeInt(getJsonInt(modeStats, "hsDeaths"));
-            buf.writeInt(getJsonInt(modeStats, "hsStuns"));
-            buf.writeInt(getJsonInt(modeStats, "hsStunsRec"));
-            buf.writeInt(getJsonInt(modeStats, "lockStuns"));
-            buf.writeInt(getJsonInt(modeStats, "lockDeaths"));
-            buf.writeInt(getJsonInt(modeStats, "lockStunsRec"));
-            buf.writeInt(getJsonInt(modeStats, "score"));
-            buf.writeInt(getJsonInt(modeStats, "rounds"));
-            buf.writeInt(0);
-            buf.writeInt(getJsonInt(modeStats, "wins"));
-            buf.writeInt(getJsonInt(modeStats, "time"));
-        } catch (Exception e) {
-            logger.warn("Failed to write mode {} stats: {}", mode, e.getMessage());
-            buf.writeZero(MODE_STATS_BLOCK_SIZE);
-        }
-    }
-
-    private static int getJsonInt(JsonObject json, String key) {
-        if (json != null && json.has(key) && !json.get(key).isJsonNull()) {
-            return json.get(key).getAsInt();
-        }
-        return 0;
+        buf.writeInt(modeStats.get(ModeStats.KILLS));
+        buf.writeInt(modeStats.get(ModeStats.DEATHS));
+        buf.writeInt(modeStats.get(ModeStats.LOCK_KILLS));
+        buf.writeInt(modeStats.get(ModeStats.SCORE));
+        buf.writeInt(modeStats.get(ModeStats.STUNS));
+        buf.writeInt(modeStats.get(ModeStats.STUNS_REC));
+        buf.writeInt(modeStats.get(ModeStats.HS_KILLS));
+        buf.writeInt(modeStats.get(ModeStats.HS_DEATHS));
+        buf.writeInt(modeStats.get(ModeStats.HS_STUNS));
+        buf.writeInt(modeStats.get(ModeStats.HS_STUNS_REC));
+        buf.writeInt(modeStats.get(ModeStats.LOCK_STUNS));
+        buf.writeInt(modeStats.get(ModeStats.LOCK_DEATHS));
+        buf.writeInt(modeStats.get(ModeStats.LOCK_STUNS_REC));
+        buf.writeInt(modeStats.get(ModeStats.SCORE));
+        buf.writeInt(modeStats.get(ModeStats.ROUNDS));
+        buf.writeInt(0);
+        buf.writeInt(modeStats.get(ModeStats.WINS));
+        buf.writeInt(modeStats.get(ModeStats.TIME));
     }
 }
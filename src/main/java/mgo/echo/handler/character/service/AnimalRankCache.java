@@ -0,0 +1,385 @@
+package mgo.echo.handler.character.service;
+
+import java.sql.PreparedStatement;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.hibernate.Session;
+import org.hibernate.query.NativeQuery;
+
+import mgo.echo.data.entity.Character;
+import mgo.echo.data.entity.CharacterStats;
+import mgo.echo.data.entity.ModeStats;
+import mgo.echo.data.repository.DbManager;
+
+/**
+ * In-memory animal ranks by character id, recomputed by a weekly job.
+ *
+ * The job walks the characters with stats in keyset pages of ids, computing
+ * several pages at a time, runs {@link AnimalRankService} on each character (falling
+ * back to current stats when there's no weekly row) and writes changed ranks
+ * to {@code mgo2_characters.character_rank}. Lookups never touch the database,
+ * and loaded characters are left alone: the job owns the column and readers
+ * go through {@link #get(Character)}.
+ */
+public class AnimalRankCache {
+    private static final Logger logger = LogManager.getLogger(AnimalRankCache.class);
+
+    /** Run after the weekly stats table has been rolled over. */
+    private static final DayOfWeek RUN_DAY = DayOfWeek.MONDAY;
+    private static final int RUN_HOUR_UTC = 1;
+
+    private static final int PAGE_SIZE = 500;
+    private static final int JOB_THREADS = 2;
+
+    private static final String WEEKLY_QUERY = "SELECT w.*, w.chara, w.mode_dm, w.mode_tdm, w.mode_res, "
+            + "w.mode_cap, w.mode_base, w.mode_bomb, w.mode_sne, w.mode_tsne, w.mode_sdm, w.mode_int, w.mode_scap, "
+            + "w.mode_race FROM mgo2_characters_stats_weekly w WHERE w.chara > :after AND w.chara <= :last";
+    private static final int WEEKLY_EXTRA_COLUMNS = 13;
+
+    private static final String PAGE_QUERY = "SELECT chara FROM ("
+            + "(SELECT chara FROM mgo2_characters_stats WHERE chara > :after ORDER BY chara LIMIT " + PAGE_SIZE
+            + ") UNION (SELECT chara FROM mgo2_characters_stats_weekly WHERE chara > :after ORDER BY chara LIMIT "
+            + PAGE_SIZE + ")) c ORDER BY chara LIMIT " + PAGE_SIZE;
+
+    private static final String SQL_UPDATE_RANK = "UPDATE mgo2_characters SET character_rank = ? WHERE id = ?";
+
+    private static final ConcurrentHashMap<Integer, Integer> ranks = new ConcurrentHashMap<>();
+
+    private static ScheduledExecutorService scheduler;
+
+    public static synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+
+        load();
+
+        scheduler = Executors.newSingleThreadScheduledExecutor((r) -> {
+            Thread thread = new Thread(r, "Animal Rank Job");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        long delay = untilNextRun(ZonedDateTime.now(ZoneOffset.UTC)).toMillis();
+        scheduler.scheduleAtFixedRate(AnimalRankCache::refresh, delay, TimeUnit.DAYS.toMillis(7),
+                TimeUnit.MILLISECONDS);
+
+        logger.info("Loaded {} animal ranks, next refresh in {} h.", ranks.size(),
+                TimeUnit.MILLISECONDS.toHours(delay));
+    }
+
+    public static synchronized void stop() {
+        if (scheduler == null) {
+            return;
+        }
+
+        scheduler.shutdownNow();
+        scheduler = null;
+    }
+
+    /**
+     * The character's animal rank, 0 for none.
+     */
+    public static int get(Character character) {
+        Integer rank = ranks.get(character.getId());
+        if (rank != null) {
+            return rank;
+        }
+        return character.getRank() != null ? character.getRank() : 0;
+    }
+
+    private static Duration untilNextRun(ZonedDateTime now) {
+        ZonedDateTime next = now.with(TemporalAdjusters.nextOrSame(RUN_DAY)).withHour(RUN_HOUR_UTC)
+                .withMinute(0).withSecond(0).withNano(0);
+        if (!next.isAfter(now)) {
+            next = next.plusWeeks(1);
+        }
+        return Duration.between(now, next);
+    }
+
+    private static void load() {
+        List<Object[]> rows = DbManager.tx(session -> session
+                .createNativeQuery("SELECT id, character_rank FROM mgo2_characters WHERE character_rank <> 0",
+                        Object[].class)
+                .list());
+        if (rows == null) {
+            logger.error("Failed to load animal ranks.");
+            return;
+        }
+
+        for (Object[] row : rows) {
+            ranks.put(((Number) row[0]).intValue(), ((Number) row[1]).intValue());
+        }
+    }
+
+    // ========================================================================
+    // Weekly Job
+    // ========================================================================
+
+    /**
+     * Recompute every character's rank. Runs on the job's own threads so
+     * lobby database work isn't queued behind it.
+     */
+    public static void refresh() {
+        long start = System.nanoTime();
+
+        AtomicInteger computed = new AtomicInteger();
+        AtomicInteger changed = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+
+        ExecutorService pool = Executors.newFixedThreadPool(JOB_THREADS, (r) -> {
+            Thread thread = new Thread(r, "Animal Rank Worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            List<CompletableFuture<Void>> pages = new ArrayList<>();
+            int after = -1;
+            while (true) {
+                int pageAfter = after;
+                List<Integer> ids = DbManager.tx(session -> getPageIds(session, pageAfter));
+                if (ids == null) {
+                    failed.incrementAndGet();
+                    logger.error("Animal rank refresh stopped: couldn't read characters after {}.", pageAfter);
+                    break;
+                }
+                if (ids.isEmpty()) {
+                    break;
+                }
+
+                int pageLast = ids.get(ids.size() - 1);
+                pages.add(CompletableFuture.runAsync(() -> {
+                    try {
+                        Map<Integer, Integer> page = DbManager
+                                .txOrThrow(session -> computePage(session, pageAfter, pageLast));
+                        computed.addAndGet(page.size());
+                        changed.addAndGet(apply(page));
+                    } catch (Exception e) {
+                        failed.incrementAndGet();
+                        logger.error("Animal rank refresh failed for characters {}-{}.", pageAfter + 1, pageLast, e);
+                    }
+                }, pool));
+                after = pageLast;
+            }
+            CompletableFuture.allOf(pages.toArray(new CompletableFuture<?>[0])).join();
+        } finally {
+            pool.shutdown();
+        }
+
+        logger.info("Refreshed animal ranks: {} computed, {} changed, {} pages failed in {} ms.", computed.get(),
+                changed.get(), failed.get(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * The next {@link #PAGE_SIZE} ids with current or weekly stats after
+     * {@code after}, in order.
+     */
+    private static List<Integer> getPageIds(Session session, int after) {
+        return session.createNativeQuery(PAGE_QUERY, Integer.class)
+                .setParameter("after", after)
+                .list();
+    }
+
+    /**
+     * Rank every character with weekly or current stats in (after, last], and
+     * write the ranks that changed.
+     */
+    private static Map<Integer, Integer> computePage(Session session, int after, int last) {
+        session.setDefaultReadOnly(true);
+
+        Map<Integer, CharacterStats> statsByChara = new HashMap<>();
+        for (CharacterStats stats : session
+                .createQuery("FROM CharacterStats WHERE charaId > :after AND charaId <= :last", CharacterStats.class)
+                .setParameter("after", after)
+                .setParameter("last", last)
+                .list()) {
+            statsByChara.put(stats.getCharaId(), stats);
+        }
+
+        NativeQuery<Object[]> weeklyQuery = session.createNativeQuery(WEEKLY_QUERY, Object[].class);
+        weeklyQuery.setParameter("after", after);
+        weeklyQuery.setParameter("last", last);
+        for (Object[] row : weeklyQuery.list()) {
+            int extra = row.length - WEEKLY_EXTRA_COLUMNS;
+            statsByChara.put(getIntValue(row, extra), toWeeklyStats(row, extra + 1));
+        }
+
+        // For Tsuchinoko, we need days since last login
+        // This would require tracking login times - for now assume 0
+        int daysSinceLastLogin = 0;
+
+        Map<Integer, Integer> page = new HashMap<>(statsByChara.size());
+        List<int[]> updates = new ArrayList<>();
+        for (Map.Entry<Integer, CharacterStats> entry : statsByChara.entrySet()) {
+            int charaId = entry.getKey();
+            int rank = AnimalRankService.calculateAnimalRank(entry.getValue(), daysSinceLastLogin);
+            page.put(charaId, rank);
+
+            Integer previous = ranks.get(charaId);
+            if (previous == null ? rank != 0 : previous != rank) {
+                updates.add(new int[] { rank, charaId });
+            }
+        }
+
+        if (!updates.isEmpty()) {
+            session.doWork(conn -> {
+                try (PreparedStatement ps = conn.prepareStatement(SQL_UPDATE_RANK)) {
+                    for (int[] update : updates) {
+                        ps.setInt(1, update[0]);
+                        ps.setInt(2, update[1]);
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                }
+            });
+        }
+
+        return page;
+    }
+
+    private static int apply(Map<Integer, Integer> page) {
+        int changed = 0;
+        for (Map.Entry<Integer, Integer> entry : page.entrySet()) {
+            Integer previous = ranks.put(entry.getKey(), entry.getValue());
+            if (previous == null ? entry.getValue() != 0 : !previous.equals(entry.getValue())) {
+                changed++;
+            }
+        }
+        return changed;
+    }
+
+    // ========================================================================
+    // Weekly Row Mapping
+    // ========================================================================
+
+    /**
+     * Map a {@code SELECT w.*} row of the weekly table. Mode stats are read
+     * from the explicitly selected columns starting at {@code modes}.
+     */
+    private static CharacterStats toWeeklyStats(Object[] row, int modes) {
+        CharacterStats stats = new CharacterStats();
+        stats.setKills(getIntValue(row, 3));
+        stats.setDeaths(getIntValue(row, 4));
+        stats.setWins(getIntValue(row, 5));
+        stats.setScore(getIntValue(row, 6));
+        stats.setRounds(getIntValue(row, 7));
+        stats.setStuns(getIntValue(row, 8));
+        stats.setStunsReceived(getIntValue(row, 9));
+        stats.setStunsFriendly(getIntValue(row, 10));
+        stats.setHeadshotKills(getIntValue(row, 11));
+        stats.setHeadshotDeaths(getIntValue(row, 12));
+        stats.setHeadshotStuns(getIntValue(row, 13));
+        stats.setHeadshotStunsReceived(getIntValue(row, 14));
+        stats.setLockKills(getIntValue(row, 15));
+        stats.setLockDeaths(getIntValue(row, 16));
+        stats.setLockStuns(getIntValue(row, 17));
+        stats.setLockStunsReceived(getIntValue(row, 18));
+        stats.setConsecutiveKills(getIntValue(row, 19));
+        stats.setConsecutiveDeaths(getIntValue(row, 20));
+        stats.setConsecutiveHeadshots(getIntValue(row, 21));
+        stats.setConsecutiveTdm(getIntValue(row, 22));
+        stats.setSpotted(getIntValue(row, 23));
+        stats.setSelfSpotted(getIntValue(row, 24));
+        stats.setSnakeSpotted(getIntValue(row, 25));
+        stats.setSnakeSelfSpotted(getIntValue(row, 26));
+        stats.setSuicides(getIntValue(row, 27));
+        stats.setSalutes(getIntValue(row, 28));
+        stats.setRadio(getIntValue(row, 29));
+        stats.setChat(getIntValue(row, 30));
+        stats.setCqcGiven(getIntValue(row, 31));
+        stats.setCqcTaken(getIntValue(row, 32));
+        stats.setRolls(getIntValue(row, 33));
+        stats.setCatapult(getIntValue(row, 34));
+        stats.setFalls(getIntValue(row, 35));
+        stats.setTrapped(getIntValue(row, 36));
+        stats.setMelee(getIntValue(row, 37));
+        stats.setMeleeRec(getIntValue(row, 38));
+        stats.setBoxTime(getIntValue(row, 39));
+        stats.setBoxUses(getIntValue(row, 40));
+        stats.setBasesCaptured(getIntValue(row, 41));
+        stats.setBasesDestroyed(getIntValue(row, 42));
+        stats.setSopDestab(getIntValue(row, 43));
+        stats.setGakoSaved(getIntValue(row, 44));
+        stats.setGakoDefended(getIntValue(row, 45));
+        stats.setGakoFirst(getIntValue(row, 46));
+        stats.setResDefend(getIntValue(row, 47));
+        stats.setResGakoTime(getIntValue(row, 48));
+        stats.setResFirstGrab(getIntValue(row, 49));
+        stats.setBombDisarms(getIntValue(row, 50));
+        stats.setSdmSurvivals(getIntValue(row, 51));
+        stats.setRaceCheckpoints(getIntValue(row, 52));
+        stats.setWinsSnake(getIntValue(row, 53));
+        stats.setKillsSnake(getIntValue(row, 54));
+        stats.setSnakeHoldups(getIntValue(row, 55));
+        stats.setSnakeTagsSpawned(getIntValue(row, 56));
+        stats.setSnakeTagsTaken(getIntValue(row, 57));
+        stats.setSnakeInjured(getIntValue(row, 58));
+        stats.setTsneGrab1(getIntValue(row, 59));
+        stats.setTsneGrab2(getIntValue(row, 60));
+        stats.setKnifeKills(getIntValue(row, 61));
+        stats.setKnifeStuns(getIntValue(row, 62));
+        stats.setBoosts(getIntValue(row, 63));
+        stats.setScans(getIntValue(row, 64));
+        stats.setEvgTime(getIntValue(row, 65));
+        stats.setWakeups(getIntValue(row, 66));
+        stats.setTeamKills(getIntValue(row, 67));
+        stats.setWithdrawals(getIntValue(row, 68));
+        stats.setPointsAssist(getIntValue(row, 69));
+        stats.setPointsBase(getIntValue(row, 70));
+        stats.setTrainedSoldiers(getIntValue(row, 71));
+        stats.setTimeTraining(getIntValue(row, 72));
+        stats.setTimeInstructor(getIntValue(row, 73));
+        stats.setTimeStudent(getIntValue(row, 74));
+        stats.setTime(getIntValue(row, 75));
+        stats.setTimeSnake(getIntValue(row, 76));
+        stats.setTimeDedi(getIntValue(row, 77));
+        stats.setStatsDm(getModeStatsValue(row, modes));
+        stats.setStatsTdm(getModeStatsValue(row, modes + 1));
+        stats.setStatsRes(getModeStatsValue(row, modes + 2));
+        stats.setStatsCap(getModeStatsValue(row, modes + 3));
+        stats.setStatsBase(getModeStatsValue(row, modes + 4));
+        stats.setStatsBomb(getModeStatsValue(row, modes + 5));
+        stats.setStatsSne(getModeStatsValue(row, modes + 6));
+        stats.setStatsTsne(getModeStatsValue(row, modes + 7));
+        stats.setStatsSdm(getModeStatsValue(row, modes + 8));
+        stats.setStatsInt(getModeStatsValue(row, modes + 9));
+        stats.setStatsScap(getModeStatsValue(row, modes + 10));
+        stats.setStatsRace(getModeStatsValue(row, modes + 11));
+        return stats;
+    }
+
+    private static int getIntValue(Object[] row, int index) {
+        if (index >= row.length || row[index] == null) {
+            return 0;
+        }
+        if (row[index] instanceof Number) {
+            return ((Number) row[index]).intValue();
+        }
+        return 0;
+    }
+
+    private static ModeStats getModeStatsValue(Object[] row, int index) {
+        if (index >= row.length || !(row[index] instanceof byte[])) {
+            return new ModeStats();
+        }
+        return ModeStats.fromBytes((byte[]) row[index]);
+    }
+}
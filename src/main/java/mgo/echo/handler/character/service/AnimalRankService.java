@@ -1,9 +1,7 @@
 package mgo.echo.handler.character.service;
 
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
-
 import mgo.echo.data.entity.CharacterStats;
+import mgo.echo.data.entity.ModeStats;
 
 /**
  * Animal Rank Calculation Service
@@ -38,17 +36,17 @@ public class AnimalRankService {
             return 0;
         }
 
-        // Parse per-mode stats
-        ModeStats dm = parseModeStats(stats.getStatsDm());
-        ModeStats tdm = parseModeStats(stats.getStatsTdm());
-        ModeStats cap = parseModeStats(stats.getStatsCap());
-        ModeStats base = parseModeStats(stats.getStatsBase());
-        ModeStats bomb = parseModeStats(stats.getStatsBomb());
-        ModeStats race = parseModeStats(stats.getStatsRace());
-        ModeStats res = parseModeStats(stats.getStatsRes());
-        ModeStats sne = parseModeStats(stats.getStatsSne());
-        ModeStats tsne = parseModeStats(stats.getStatsTsne());
-        ModeStats sdm = parseModeStats(stats.getStatsSdm());
+        // Per-mode stats
+        ModeStats dm = modeStats(stats.getStatsDm());
+        ModeStats tdm = modeStats(stats.getStatsTdm());
+        ModeStats cap = modeStats(stats.getStatsCap());
+        ModeStats base = modeStats(stats.getStatsBase());
+        ModeStats bomb = modeStats(stats.getStatsBomb());
+        ModeStats race = modeStats(stats.getStatsRace());
+        ModeStats res = modeStats(stats.getStatsRes());
+        ModeStats sne = modeStats(stats.getStatsSne());
+        ModeStats tsne = modeStats(stats.getStatsTsne());
+        ModeStats sdm = modeStats(stats.getStatsSdm());
 
         int totalRounds = stats.getRounds();
         if (totalRounds == 0) {
@@ -278,12 +276,12 @@ public class AnimalRankService {
         }
 
         // Win % in RACE >= 50%
-        if (race.rounds > 0 && (double) race.wins / race.rounds < 0.50) {
+        if (race.getRounds() > 0 && (double) race.getWins() / race.getRounds() < 0.50) {
             return false;
         }
 
         // Bases captured / BASE rounds >= 1.60
-        if (base.rounds > 0 && (double) stats.getBasesCaptured() / base.rounds < 1.60) {
+        if (base.getRounds() > 0 && (double) stats.getBasesCaptured() / base.getRounds() < 1.60) {
             return false;
         }
 
@@ -313,11 +311,11 @@ public class AnimalRankService {
             return false;
         }
 
-        if (race.rounds > 0 && (double) race.wins / race.rounds < 0.45) {
+        if (race.getRounds() > 0 && (double) race.getWins() / race.getRounds() < 0.45) {
             return false;
         }
 
-        if (base.rounds > 0 && (double) stats.getBasesCaptured() / base.rounds < 1.40) {
+        if (base.getRounds() > 0 && (double) stats.getBasesCaptured() / base.getRounds() < 1.40) {
             return false;
         }
 
@@ -346,11 +344,11 @@ public class AnimalRankService {
             return false;
         }
 
-        if (race.rounds > 0 && (double) race.wins / race.rounds < 0.425) {
+        if (race.getRounds() > 0 && (double) race.getWins() / race.getRounds() < 0.425) {
             return false;
         }
 
-        if (base.rounds > 0 && (double) stats.getBasesCaptured() / base.rounds < 1.20) {
+        if (base.getRounds() > 0 && (double) stats.getBasesCaptured() / base.getRounds() < 1.20) {
             return false;
         }
 
@@ -379,11 +377,11 @@ public class AnimalRankService {
             return false;
         }
 
-        if (race.rounds > 0 && (double) race.wins / race.rounds < 0.40) {
+        if (race.getRounds() > 0 && (double) race.getWins() / race.getRounds() < 0.40) {
             return false;
         }
 
-        if (base.rounds > 0 && (double) stats.getBasesCaptured() / base.rounds < 1.00) {
+        if (base.getRounds() > 0 && (double) stats.getBasesCaptured() / base.getRounds() < 1.00) {
             return false;
         }
 
@@ -500,7 +498,7 @@ public class AnimalRankService {
 
     private static boolean checkNightOwl(CharacterStats stats, ModeStats tsne, ModeStats sne) {
         // (spotted in TSNE + snake spotted in SNE) / (TSNE rounds + SNE rounds) <= 0.50
-        int totalRounds = tsne.rounds + sne.rounds;
+        int totalRounds = tsne.getRounds() + sne.getRounds();
         if (totalRounds < 15) {
             return false;
         }
@@ -510,10 +508,10 @@ public class AnimalRankService {
 
     private static boolean checkHawk(CharacterStats stats, ModeStats tsne) {
         // Spotted per TSNE round >= 0.30
-        if (tsne.rounds == 0) {
+        if (tsne.getRounds() == 0) {
             return false;
         }
-        return (double) stats.getSpotted() / tsne.rounds >= 0.30;
+        return (double) stats.getSpotted() / tsne.getRounds() >= 0.30;
     }
 
     private static boolean checkFlyingSquirrel(CharacterStats stats, int totalRounds) {
@@ -525,13 +523,13 @@ public class AnimalRankService {
 
     private static boolean checkModeSpecialist(ModeStats mode, int totalRounds, int minRounds) {
         // Mode rounds / total rounds >= 0.60 AND mode rounds >= minRounds
-        if (mode.rounds < minRounds) {
+        if (mode.getRounds() < minRounds) {
             return false;
         }
         if (totalRounds == 0) {
             return false;
         }
-        return (double) mode.rounds / totalRounds >= 0.60;
+        return (double) mode.getRounds() / totalRounds >= 0.60;
     }
 
     private static boolean checkFightingFish(ModeStats dm, int totalRounds) {
@@ -579,10 +577,10 @@ public class AnimalRankService {
     private static boolean checkPuma(CharacterStats stats, ModeStats sne) {
         // Snake holdups / snake rounds >= 2
         // Also requires at least 15 SNE rounds and 5 snake rounds
-        if (sne.rounds < 15) {
+        if (sne.getRounds() < 15) {
             return false;
         }
-        int snakeRounds = sne.rounds; // Approximate, ideally would track snake-specific rounds
+        int snakeRounds = sne.getRounds(); // Approximate, ideally would track snake-specific rounds
         if (snakeRounds < 5) {
             return false;
         }
@@ -593,7 +591,7 @@ public class AnimalRankService {
         // (spotted in TSNE + snake spotted in SNE) / (TSNE rounds + SNE snake rounds)
         // <=
         // 0.15
-        int totalRounds = tsne.rounds + sne.rounds;
+        int totalRounds = tsne.getRounds() + sne.getRounds();
         if (totalRounds < 15) {
             return false;
         }
@@ -603,18 +601,18 @@ public class AnimalRankService {
 
     private static boolean checkPanda(CharacterStats stats, ModeStats base) {
         // Bases captured / BASE rounds >= 2.5
-        if (base.rounds < 15) {
+        if (base.getRounds() < 15) {
             return false;
         }
-        return (double) stats.getBasesCaptured() / base.rounds >= 2.5;
+        return (double) stats.getBasesCaptured() / base.getRounds() >= 2.5;
     }
 
     private static boolean checkMantis(CharacterStats stats, ModeStats tsne) {
         // Wakeups in TSNE / TSNE rounds >= 0.30
-        if (tsne.rounds == 0) {
+        if (tsne.getRounds() == 0) {
             return false;
         }
-        return (double) stats.getWakeups() / tsne.rounds >= 0.30;
+        return (double) stats.getWakeups() / tsne.getRounds() >= 0.30;
     }
 
     // ===== SURVIVAL/DEFENSE =====
@@ -622,11 +620,11 @@ public class AnimalRankService {
     private static boolean checkWaterBear(CharacterStats stats, ModeStats res, ModeStats tsne) {
         // Survival ratio in RES + TSNE <= 0.50
         // (deaths in these modes / rounds in these modes)
-        int totalRounds = res.rounds + tsne.rounds;
+        int totalRounds = res.getRounds() + tsne.getRounds();
         if (totalRounds == 0) {
             return false;
         }
-        int totalDeaths = res.deaths + tsne.deaths;
+        int totalDeaths = res.getDeaths() + tsne.getDeaths();
         return (double) totalDeaths / totalRounds <= 0.50;
     }
 
@@ -672,15 +670,15 @@ public class AnimalRankService {
      * for specific modes (DM, TDM, SNE)
      */
     private static double calculateKDSRR(CharacterStats stats, ModeStats dm, ModeStats tdm, ModeStats sne) {
-        int totalRounds = dm.rounds + tdm.rounds + sne.rounds;
+        int totalRounds = dm.getRounds() + tdm.getRounds() + sne.getRounds();
         if (totalRounds == 0) {
             return 0;
         }
 
-        int kills = dm.kills + tdm.kills + sne.kills;
-        int stuns = dm.stuns + tdm.stuns + sne.stuns;
-        int deaths = dm.deaths + tdm.deaths + sne.deaths;
-        int stunsRec = dm.stunsRec + tdm.stunsRec + sne.stunsRec;
+        int kills = dm.getKills() + tdm.getKills() + sne.getKills();
+        int stuns = dm.getStuns() + tdm.getStuns() + sne.getStuns();
+        int deaths = dm.getDeaths() + tdm.getDeaths() + sne.getDeaths();
+        int stunsRec = dm.getStunsRec() + tdm.getStunsRec() + sne.getStunsRec();
 
         return (double) (kills + stuns + deaths + stunsRec) / totalRounds;
     }
@@ -693,8 +691,8 @@ public class AnimalRankService {
         int totalRounds = 0;
 
         for (ModeStats mode : modes) {
-            totalWins += mode.wins;
-            totalRounds += mode.rounds;
+            totalWins += mode.getWins();
+            totalRounds += mode.getRounds();
         }
 
         if (totalRounds == 0) {
@@ -704,50 +702,7 @@ public class AnimalRankService {
         return (double) totalWins / totalRounds;
     }
 
-    /**
-     * Parse per-mode stats JSON string into ModeStats object
-     */
-    private static ModeStats parseModeStats(String json) {
-        ModeStats stats = new ModeStats();
-        if (json == null || json.isEmpty()) {
-            return stats;
-        }
-
-        try {
-            JsonObject obj = JsonParser.parseString(json).getAsJsonObject();
-            stats.wins = getIntSafe(obj, "wins");
-            stats.rounds = getIntSafe(obj, "rounds");
-            stats.kills = getIntSafe(obj, "kills");
-            stats.deaths = getIntSafe(obj, "deaths");
-            stats.stuns = getIntSafe(obj, "stuns");
-            stats.stunsRec = getIntSafe(obj, "stunsRec");
-            stats.score = getIntSafe(obj, "score");
-            stats.time = getIntSafe(obj, "time");
-        } catch (Exception e) {
-            // Return default empty stats on parse error
-        }
-
-        return stats;
-    }
-
-    private static int getIntSafe(JsonObject obj, String key) {
-        if (obj.has(key) && !obj.get(key).isJsonNull()) {
-            return obj.get(key).getAsInt();
-        }
-        return 0;
-    }
-
-    /**
-     * Per-mode statistics container
-     */
-    private static class ModeStats {
-        int wins = 0;
-        int rounds = 0;
-        int kills = 0;
-        int deaths = 0;
-        int stuns = 0;
-        int stunsRec = 0;
-        int score = 0;
-        int time = 0;
+    private static ModeStats modeStats(ModeStats stats) {
+        return stats != null ? stats : new ModeStats();
     }
 }
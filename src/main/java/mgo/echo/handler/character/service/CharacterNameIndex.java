@@ -0,0 +1,187 @@
+package mgo.echo.handler.character.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.hibernate.Session;
+
+import mgo.echo.data.repository.DbExecutor;
+import mgo.echo.data.repository.DbManager;
+import mgo.echo.util.NameIndex;
+
+/**
+ * In-memory index of every character name, for player search (0x4600) and
+ * the name check on character creation.
+ *
+ * Lookups go through a {@link NameIndex}, so they are case insensitive and
+ * come out ordered by id. Warmed at startup in pages of ids on the db executor
+ * and kept current by character creation and deletion. Until every page has
+ * loaded, {@link #isReady()} is false and callers should go to the database
+ * instead.
+ */
+public class CharacterNameIndex {
+    private static final Logger logger = LogManager.getLogger(CharacterNameIndex.class);
+
+    private static final int PAGE_SIZE = 20000;
+
+    private static final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private static final NameIndex<Entry> index = new NameIndex<>();
+
+    private static volatile boolean ready;
+
+    public static final class Entry {
+        private final int id;
+        private final String name;
+
+        Entry(int id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    private CharacterNameIndex() {
+    }
+
+    // ========================================================================
+    // Loading
+    // ========================================================================
+
+    public static void start() {
+        long start = System.nanoTime();
+
+        int[] range = DbManager.tx(CharacterNameIndex::getIdRange);
+        if (range == null) {
+            logger.error("Failed to load character name index: couldn't read character range.");
+            return;
+        }
+
+        AtomicInteger failed = new AtomicInteger();
+        List<CompletableFuture<List<Object[]>>> pages = new ArrayList<>();
+        for (int lo = range[0]; lo <= range[1]; lo += PAGE_SIZE) {
+            int pageLo = lo;
+            int pageHi = lo + PAGE_SIZE;
+            pages.add(CompletableFuture.supplyAsync(() -> {
+                List<Object[]> rows = DbManager.tx(session -> getPage(session, pageLo, pageHi));
+                if (rows == null) {
+                    failed.incrementAndGet();
+                    logger.error("Failed to load character names {}-{}.", pageLo, pageHi - 1);
+                }
+                return rows;
+            }, DbExecutor.get()));
+        }
+
+        int loaded = 0;
+        boolean complete = true;
+        lock.writeLock().lock();
+        try {
+            index.clear();
+            for (CompletableFuture<List<Object[]>> page : pages) {
+                List<Object[]> rows = page.join();
+                if (rows == null) {
+                    complete = false;
+                    continue;
+                }
+
+                for (Object[] row : rows) {
+                    add(new Entry((Integer) row[0], (String) row[1]));
+                }
+                loaded += rows.size();
+            }
+            ready = complete;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        if (!complete) {
+            logger.error("Character name index is incomplete, name lookups will use the database.");
+        }
+
+        logger.info("Loaded {} character names, {} pages failed in {} ms.", loaded, failed.get(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private static int[] getIdRange(Session session) {
+        Object[] row = session.createQuery("select min(c.id), max(c.id) from Character c", Object[].class)
+                .uniqueResult();
+        if (row == null || row[0] == null) {
+            return new int[] { 0, -1 };
+        }
+        return new int[] { ((Number) row[0]).intValue(), ((Number) row[1]).intValue() };
+    }
+
+    private static List<Object[]> getPage(Session session, int lo, int hi) {
+        return session.createQuery("select c.id, c.name from Character c where c.id >= :lo and c.id < :hi",
+                Object[].class)
+                .setParameter("lo", lo)
+                .setParameter("hi", hi)
+                .list();
+    }
+
+    // ========================================================================
+    // Queries
+    // ========================================================================
+
+    /**
+     * @return Whether every character was loaded, so lookups are complete
+     */
+    public static boolean isReady() {
+        return ready;
+    }
+
+    public static boolean contains(String name) {
+        lock.readLock().lock();
+        try {
+            return index.contains(name);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return Up to {@code limit} characters whose name is {@code name}, or
+     *         contains it unless {@code exactOnly}, ordered by id
+     */
+    public static List<Entry> search(String name, boolean exactOnly, int limit) {
+        lock.readLock().lock();
+        try {
+            return index.search(name, exactOnly, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ========================================================================
+    // Updates
+    // ========================================================================
+
+    /**
+     * Add a character, or rename it if it's already indexed.
+     */
+    public static void put(int charaId, String name) {
+        lock.writeLock().lock();
+        try {
+            add(new Entry(charaId, name));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void add(Entry entry) {
+        index.put(entry.id, entry.name, entry);
+    }
+}
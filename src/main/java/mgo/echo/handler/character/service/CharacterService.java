@@ -1,8 +1,8 @@
 package mgo.echo.handler.character.service;
 
+import java.util.ArrayList;
 import java.util.List;
 
-import org.hibernate.Hibernate;
 import org.hibernate.Session;
 import org.hibernate.query.NativeQuery;
 import org.hibernate.query.Query;
@@ -225,8 +225,8 @@ public class CharacterService {
             int exp = calculateExp(targetChar, targetUser);
             int totalReward = stats != null ? stats.getScore() : 0;
 
-            // Use stored animal rank - it should be pre-calculated or manually set
-            int animalRank = targetChar.getRank() != null ? targetChar.getRank() : 0;
+            // Precomputed weekly by AnimalRankCache
+            int animalRank = AnimalRankCache.get(targetChar);
 
             int points = exp;
 
@@ -351,183 +351,30 @@ public class CharacterService {
     }
 
     // ========================================================================
-    // Animal Rank Calculation
+    // Search
     // ========================================================================
 
-    /**
-     * Calculate animal rank for a character.
-     * Uses the previous week's stats from mgo2_characters_stats_weekly table.
-     * Falls back to current stats if no weekly stats exist.
-     */
-    @SuppressWarnings("unchecked")
-    private static int calculateAnimalRank(Session session, int charaId, CharacterStats currentStats) {
-        // First try to get previous week's stats
-        CharacterStats weeklyStats = getWeeklyStats(session, charaId);
-
-        // Use weekly stats if available, otherwise use current stats
-        CharacterStats statsToUse = weeklyStats != null ? weeklyStats : currentStats;
-
-        if (statsToUse == null) {
-            return 0;
+    public static List<CharacterNameIndex.Entry> searchCharacters(String name, boolean exactOnly, int limit) {
+        if (CharacterNameIndex.isReady()) {
+            return CharacterNameIndex.search(name, exactOnly, limit);
         }
 
-        // For Tsuchinoko, we need days since last login
-        // This would require tracking login times - for now assume 0
-        int daysSinceLastLogin = 0;
-
-        return AnimalRankService.calculateAnimalRank(statsToUse, daysSinceLastLogin);
-    }
-
-    /**
-     * Query the previous week's stats from the weekly stats table.
-     * Returns null if no weekly stats exist.
-     */
-    @SuppressWarnings("unchecked")
-    private static CharacterStats getWeeklyStats(Session session, int charaId) {
-        try {
-            // Query weekly stats and map to CharacterStats object
-            NativeQuery<Object[]> query = session.createNativeQuery(
-                    "SELECT * FROM mgo2_characters_stats_weekly WHERE chara = :charaId LIMIT 1");
-            query.setParameter("charaId", charaId);
-
-            List<Object[]> results = query.list();
-            if (results.isEmpty()) {
-                return null;
-            }
-
-            Object[] row = results.get(0);
-
-            // Map the result to a CharacterStats object
-            CharacterStats stats = new CharacterStats();
-            stats.setKills(getIntValue(row, 3));
-            stats.setDeaths(getIntValue(row, 4));
-            stats.setWins(getIntValue(row, 5));
-            stats.setScore(getIntValue(row, 6));
-            stats.setRounds(getIntValue(row, 7));
-            stats.setStuns(getIntValue(row, 8));
-            stats.setStunsReceived(getIntValue(row, 9));
-            stats.setStunsFriendly(getIntValue(row, 10));
-            stats.setHeadshotKills(getIntValue(row, 11));
-            stats.setHeadshotDeaths(getIntValue(row, 12));
-            stats.setHeadshotStuns(getIntValue(row, 13));
-            stats.setHeadshotStunsReceived(getIntValue(row, 14));
-            stats.setLockKills(getIntValue(row, 15));
-            stats.setLockDeaths(getIntValue(row, 16));
-            stats.setLockStuns(getIntValue(row, 17));
-            stats.setLockStunsReceived(getIntValue(row, 18));
-            stats.setConsecutiveKills(getIntValue(row, 19));
-            stats.setConsecutiveDeaths(getIntValue(row, 20));
-            stats.setConsecutiveHeadshots(getIntValue(row, 21));
-            stats.setConsecutiveTdm(getIntValue(row, 22));
-            stats.setSpotted(getIntValue(row, 23));
-            stats.setSelfSpotted(getIntValue(row, 24));
-            stats.setSnakeSpotted(getIntValue(row, 25));
-            stats.setSnakeSelfSpotted(getIntValue(row, 26));
-            stats.setSuicides(getIntValue(row, 27));
-            stats.setSalutes(getIntValue(row, 28));
-            stats.setRadio(getIntValue(row, 29));
-            stats.setChat(getIntValue(row, 30));
-            stats.setCqcGiven(getIntValue(row, 31));
-            stats.setCqcTaken(getIntValue(row, 32));
-            stats.setRolls(getIntValue(row, 33));
-            stats.setCatapult(getIntValue(row, 34));
-            stats.setFalls(getIntValue(row, 35));
-            stats.setTrapped(getIntValue(row, 36));
-            stats.setMelee(getIntValue(row, 37));
-            stats.setMeleeRec(getIntValue(row, 38));
-            stats.setBoxTime(getIntValue(row, 39));
-            stats.setBoxUses(getIntValue(row, 40));
-            stats.setBasesCaptured(getIntValue(row, 41));
-            stats.setBasesDestroyed(getIntValue(row, 42));
-            stats.setSopDestab(getIntValue(row, 43));
-            stats.setGakoSaved(getIntValue(row, 44));
-            stats.setGakoDefended(getIntValue(row, 45));
-            stats.setGakoFirst(getIntValue(row, 46));
-            stats.setResDefend(getIntValue(row, 47));
-            stats.setResGakoTime(getIntValue(row, 48));
-            stats.setResFirstGrab(getIntValue(row, 49));
-            stats.setBombDisarms(getIntValue(row, 50));
-            stats.setSdmSurvivals(getIntValue(row, 51));
-            stats.setRaceCheckpoints(getIntValue(row, 52));
-            stats.setWinsSnake(getIntValue(row, 53));
-            stats.setKillsSnake(getIntValue(row, 54));
-            stats.setSnakeHoldups(getIntValue(row, 55));
-            stats.setSnakeTagsSpawned(getIntValue(row, 56));
-            stats.setSnakeTagsTaken(getIntValue(row, 57));
-            stats.setSnakeInjured(getIntValue(row, 58));
-            stats.setTsneGrab1(getIntValue(row, 59));
-            stats.setTsneGrab2(getIntValue(row, 60));
-            stats.setKnifeKills(getIntValue(row, 61));
-            stats.setKnifeStuns(getIntValue(row, 62));
-            stats.setBoosts(getIntValue(row, 63));
-            stats.setScans(getIntValue(row, 64));
-            stats.setEvgTime(getIntValue(row, 65));
-            stats.setWakeups(getIntValue(row, 66));
-            stats.setTeamKills(getIntValue(row, 67));
-            stats.setWithdrawals(getIntValue(row, 68));
-            stats.setPointsAssist(getIntValue(row, 69));
-            stats.setPointsBase(getIntValue(row, 70));
-            stats.setTrainedSoldiers(getIntValue(row, 71));
-            stats.setTimeTraining(getIntValue(row, 72));
-            stats.setTimeInstructor(getIntValue(row, 73));
-            stats.setTimeStudent(getIntValue(row, 74));
-            stats.setTime(getIntValue(row, 75));
-            stats.setTimeSnake(getIntValue(row, 76));
-            stats.setTimeDedi(getIntValue(row, 77));
-            stats.setStatsDm(getStringValue(row, 78));
-            stats.setStatsTdm(getStringValue(row, 79));
-            stats.setStatsRes(getStringValue(row, 80));
-            stats.setStatsCap(getStringValue(row, 81));
-            stats.setStatsBase(getStringValue(row, 82));
-            stats.setStatsBomb(getStringValue(row, 83));
-            stats.setStatsSne(getStringValue(row, 84));
-            stats.setStatsTsne(getStringValue(row, 85));
-            stats.setStatsSdm(getStringValue(row, 86));
-            stats.setStatsInt(getStringValue(row, 87));
-            stats.setStatsScap(getStringValue(row, 88));
-            stats.setStatsRace(getStringValue(row, 89));
-
-            return stats;
-        } catch (Exception e) {
-            // Log error and return null
-            return null;
-        }
-    }
-
-    private static int getIntValue(Object[] row, int index) {
-        if (index >= row.length || row[index] == null) {
-            return 0;
-        }
-        if (row[index] instanceof Number) {
-            return ((Number) row[index]).intValue();
-        }
-        return 0;
-    }
-
-    private static String getStringValue(Object[] row, int index) {
-        if (index >= row.length || row[index] == null) {
-            return null;
-        }
-        return row[index].toString();
-    }
-
-    // ========================================================================
-    // Search
-    // ========================================================================
-
-    public static List<Character> searchCharacters(String name, boolean exactOnly) {
         String searchPattern = exactOnly ? name : "%" + name + "%";
 
-        return DbManager.tx(session -> {
-            Query<Character> query = session.createQuery("from Character where name like :name", Character.class);
-            query.setParameter("name", searchPattern);
-            List<Character> results = query.list();
-
-            for (Character character : results) {
-                Hibernate.initialize(character.getLobby());
+        List<Object[]> rows = DbManager.tx(session -> session
+                .createQuery("select c.id, c.name from Character c where c.name like :name order by c.id",
+                        Object[].class)
+                .setParameter("name", searchPattern)
+                .setMaxResults(limit)
+                .list());
+
+        List<CharacterNameIndex.Entry> results = new ArrayList<>();
+        if (rows != null) {
+            for (Object[] row : rows) {
+                results.add(new CharacterNameIndex.Entry((Integer) row[0], (String) row[1]));
             }
-            return results;
-        });
+        }
+        return results;
     }
 
     // ========================================================================
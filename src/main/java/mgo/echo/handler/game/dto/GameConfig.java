@@ -0,0 +1,107 @@
+package mgo.echo.handler.game.dto;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import mgo.echo.data.entity.Game;
+import mgo.echo.util.Util;
+
+/**
+ * Parsed form of a game's common, rules and games JSON.
+ *
+ * Built once per game and shared by every list, details, join and stats
+ * packet. Treat it and the settings objects it holds as read-only. The config
+ * is kept on the game and reparsed when any of its JSON strings is replaced.
+ */
+public final class GameConfig implements Game.ParsedConfig {
+    private static final int[] NO_ROUND = { 0, 0, 0 };
+
+    private final GameSettings settings;
+    private final RuleSettings rules;
+    private final byte[] weaponRestrictions;
+    private final int[][] rounds;
+
+    private final String sourceCommon;
+    private final String sourceRules;
+    private final String sourceGames;
+
+    private GameConfig(String common, String rulesJson, String games, GameSettings settings, RuleSettings rules,
+            byte[] weaponRestrictions, int[][] rounds) {
+        this.sourceCommon = common;
+        this.sourceRules = rulesJson;
+        this.sourceGames = games;
+        this.settings = settings;
+        this.rules = rules;
+        this.weaponRestrictions = weaponRestrictions;
+        this.rounds = rounds;
+    }
+
+    /**
+     * The game's config, parsing it on first use and after its JSON changes.
+     */
+    public static GameConfig of(Game game) {
+        String common = game.getCommon();
+        String rules = game.getRules();
+        String games = game.getGames();
+
+        if (game.getParsedConfig() instanceof GameConfig config && config.sourceCommon == common
+                && config.sourceRules == rules && config.sourceGames == games) {
+            return config;
+        }
+
+        GameConfig config = parse(common, rules, games);
+        game.setParsedConfig(config);
+        return config;
+    }
+
+    private static GameConfig parse(String common, String rules, String games) {
+        JsonObject jCommon = Util.jsonDecode(common);
+        JsonObject jRules = Util.jsonDecode(rules);
+        JsonArray jGames = Util.jsonDecodeArray(games);
+
+        int[][] rounds = new int[jGames.size()][];
+        for (int i = 0; i < rounds.length; i++) {
+            JsonArray jGame = jGames.get(i).getAsJsonArray();
+            rounds[i] = new int[] { jGame.get(0).getAsInt(), jGame.get(1).getAsInt(),
+                    jGame.size() > 2 ? jGame.get(2).getAsInt() : 0 };
+        }
+
+        return new GameConfig(common, rules, games, GameSettings.parse(jCommon), RuleSettings.parse(jRules),
+                WeaponRestrictions.parse(jCommon).toBytes(), rounds);
+    }
+
+    public GameSettings settings() {
+        return settings;
+    }
+
+    public RuleSettings rules() {
+        return rules;
+    }
+
+    /**
+     * The 16-byte weapon restriction flags. Do not modify.
+     */
+    public byte[] weaponRestrictions() {
+        return weaponRestrictions;
+    }
+
+    public int roundCount() {
+        return rounds.length;
+    }
+
+    public int rule(int round) {
+        return round(round)[0];
+    }
+
+    public int map(int round) {
+        return round(round)[1];
+    }
+
+    public int flags(int round) {
+        return round(round)[2];
+    }
+
+    private int[] round(int round) {
+        return round >= 0 && round < rounds.length ? rounds[round] : NO_ROUND;
+    }
+}
@@ -1,21 +1,16 @@
 package mgo.echo.handler.game.packet;
 
-import java.util.List;
-
-import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import mgo.echo.data.entity.Character;
 import mgo.echo.data.entity.Game;
 import mgo.echo.data.entity.Lobby;
 import mgo.echo.data.entity.Player;
+import mgo.echo.data.entity.PlayerRoster;
 import mgo.echo.data.entity.User;
+import mgo.echo.handler.game.dto.GameConfig;
 import mgo.echo.handler.game.dto.GameSettings;
 import mgo.echo.handler.game.dto.RuleSettings;
-import mgo.echo.handler.game.dto.WeaponRestrictions;
 import mgo.echo.protocol.command.GamesCmd;
 import mgo.echo.util.Packets;
 import mgo.echo.util.Util;
@@ -34,17 +29,13 @@ public final class GameDetailsPacket {
     public static void write(ChannelHandlerContext ctx, Game game, Lobby lobby) {
         ByteBuf bo = ctx.alloc().directBuffer(BUFFER_SIZE);
 
-        JsonObject common = Util.jsonDecode(game.getCommon());
-        JsonObject rules = Util.jsonDecode(game.getRules());
-        JsonArray jGames = Util.jsonDecodeArray(game.getGames());
-
-        GameSettings settings = GameSettings.parse(common);
-        RuleSettings ruleSettings = RuleSettings.parse(rules);
-        WeaponRestrictions weapons = WeaponRestrictions.parse(common);
+        GameConfig config = GameConfig.of(game);
+        GameSettings settings = config.settings();
+        RuleSettings ruleSettings = config.rules();
 
-        List<Player> players = game.getPlayers();
-        int numPlayers = players.size();
-        int averageExperience = calculateAverageExperience(players);
+        PlayerRoster roster = game.getRoster();
+        int numPlayers = roster.size();
+        int averageExperience = roster.averageExperience();
 
         int commonA = settings.buildCommonA();
         int commonB = settings.buildCommonB();
@@ -52,8 +43,6 @@ public final class GameDetailsPacket {
         int hostOptionsExtraTimeFlags = ruleSettings.buildExtraTimeFlags();
         hostOptionsExtraTimeFlags |= settings.nonStat ? 0b10 : 0;
 
-        byte[] wr = weapons.toBytes();
-
         // Header
         bo.writeInt(0).writeInt(game.getId());
         Util.writeString(game.getName(), 0x10, bo);
@@ -66,17 +55,13 @@ public final class GameDetailsPacket {
                 .writeByte(0x1);
 
         // Game rounds (map/rule/flags)
-        for (JsonElement o : jGames) {
-            JsonArray game0 = (JsonArray) o;
-            int rule0 = game0.get(0).getAsInt();
-            int map0 = game0.get(1).getAsInt();
-            int flags0 = game0.get(2).getAsInt();
-            bo.writeByte(rule0).writeByte(map0).writeByte(flags0);
+        for (int i = 0; i < config.roundCount(); i++) {
+            bo.writeByte(config.rule(i)).writeByte(config.map(i)).writeByte(config.flags(i));
         }
 
         Util.padTo(0xd5, bo);
         bo.writeZero(5)
-                .writeBytes(wr)
+                .writeBytes(config.weaponRestrictions())
                 .writeByte(game.getMaxPlayers())
                 .writeByte(numPlayers)
                 .writeInt(settings.briefingTime)
@@ -131,14 +116,13 @@ public final class GameDetailsPacket {
                 .writeZero(4);
 
         // Host player info
-        Player playerHost = players.stream().filter(e -> e.getCharacterId().equals(game.getHostId())).findAny()
-                .orElse(null);
+        Player playerHost = roster.get(game.getHostId());
         if (playerHost != null) {
             writePlayerInfo(bo, playerHost);
         }
 
         // Other players
-        for (Player player : players) {
+        for (Player player : roster.list()) {
             if (player == null || player == playerHost) {
                 continue;
             }
@@ -161,21 +145,4 @@ public final class GameDetailsPacket {
         boolean isMain = pUser.getMainCharacterId() != null && pCharacter.getId().equals(pUser.getMainCharacterId());
         bo.writeInt(isMain ? pUser.getMainExp() : pUser.getAltExp());
     }
-
-    private static int calculateAverageExperience(List<Player> players) {
-        if (players.isEmpty()) {
-            return 0;
-        }
-
-        int totalExperience = 0;
-        for (Player player : players) {
-            Character pCharacter = player.getCharacter();
-            User pUser = pCharacter.getUser();
-            boolean isMain = pUser.getMainCharacterId() != null
-                    && pCharacter.getId().equals(pUser.getMainCharacterId());
-            totalExperience += isMain ? pUser.getMainExp() : pUser.getAltExp();
-        }
-
-        return totalExperience / players.size();
-    }
 }
@@ -2,97 +2,89 @@ package mgo.echo.handler.game.packet;
 
 import java.util.List;
 
-import com.google.gson.JsonArray;
-import com.google.gson.JsonObject;
-
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import mgo.echo.data.entity.Character;
 import mgo.echo.data.entity.Game;
 import mgo.echo.data.entity.Player;
-import mgo.echo.data.entity.User;
+import mgo.echo.data.entity.PlayerRoster;
+import mgo.echo.handler.game.dto.GameConfig;
 import mgo.echo.handler.game.dto.GameSettings;
 import mgo.echo.util.Util;
 
 /**
  * Writes a single game list entry to a buffer.
  * Entry size: 0x37 bytes
+ *
+ * The viewer-independent part of the entry is encoded once per game revision
+ * and cached on the game; the friend/blocked flags, ping and host score are
+ * patched in per write.
  */
 public final class GameListEntryPacket {
+    public static final int LENGTH = 0x37;
+
+    private static final int OFFSET_PING = 0x1e;
+    private static final int OFFSET_FRIEND_BLOCK = 0x22;
+    private static final int OFFSET_HOST_SCORE = 0x2c;
+    private static final int OFFSET_HOST_VOTES = 0x30;
 
     private GameListEntryPacket() {
     }
 
     public static void write(ByteBuf bo, Game game, Character viewer) {
-        JsonObject common = Util.jsonDecode(game.getCommon());
-        List<Player> players = game.getPlayers();
+        int revision = game.getRevision();
+        byte[] entry = game.getListEntry(revision);
+        if (entry == null) {
+            entry = encode(game);
+            game.setListEntry(revision, entry);
+        }
 
-        GameSettings settings = GameSettings.parse(common);
-        int[] currentMapRule = getCurrentMapRule(game);
+        Character host = game.getHost();
+        int start = bo.writerIndex();
+        bo.writeBytes(entry);
+        bo.setInt(start + OFFSET_PING, game.getPing())
+                .setByte(start + OFFSET_FRIEND_BLOCK, checkFriendsAndBlocked(viewer, game.getPlayers()))
+                .setInt(start + OFFSET_HOST_SCORE, host.getHostScore())
+                .setInt(start + OFFSET_HOST_VOTES, host.getHostVotes());
+    }
+
+    private static byte[] encode(Game game) {
+        PlayerRoster roster = game.getRoster();
 
-        int averageExperience = calculateAverageExperience(players);
-        int friendBlockFlags = checkFriendsAndBlocked(viewer, players);
+        GameConfig config = GameConfig.of(game);
+        GameSettings settings = config.settings();
+        int currentGame = game.getCurrentGame();
 
         int hostOptions = settings.buildHostOptions(game.getPassword() != null);
         int commonA = settings.buildCommonA();
         int commonB = settings.buildCommonB();
 
+        byte[] entry = new byte[LENGTH];
+        ByteBuf bo = Unpooled.wrappedBuffer(entry).writerIndex(0);
+
         bo.writeInt(game.getId());
         Util.writeString(game.getName(), 16, bo);
         bo.writeByte(hostOptions)
                 .writeByte(0x8)
-                .writeByte(currentMapRule[0])
-                .writeByte(currentMapRule[1])
+                .writeByte(config.rule(currentGame))
+                .writeByte(config.map(currentGame))
                 .writeZero(1)
                 .writeByte(game.getMaxPlayers())
                 .writeByte(game.getStance())
                 .writeByte(commonA)
                 .writeByte(commonB)
-                .writeByte(players.size())
-                .writeInt(game.getPing())
-                .writeByte(friendBlockFlags)
+                .writeByte(roster.size())
+                .writeInt(0)
+                .writeByte(0)
                 .writeByte(settings.levelLimitTolerance)
                 .writeInt(settings.levelLimitBase)
-                .writeInt(averageExperience)
-                .writeInt(game.getHost().getHostScore())
-                .writeInt(game.getHost().getHostVotes())
+                .writeInt(roster.averageExperience())
+                .writeInt(0)
+                .writeInt(0)
                 .writeZero(2)
                 .writeByte(0x63);
-    }
-
-    private static int[] getCurrentMapRule(Game game) {
-        JsonArray jGames = Util.jsonDecodeArray(game.getGames());
-        int currentGame = game.getCurrentGame();
-
-        if (currentGame < jGames.size()) {
-            JsonArray jGame = jGames.get(currentGame).getAsJsonArray();
-            return new int[] { jGame.get(0).getAsInt(), jGame.get(1).getAsInt() };
-        }
-
-        return new int[] { 0, 0 };
-    }
-
-    private static int calculateAverageExperience(List<Player> players) {
-        if (players.isEmpty()) {
-            return 0;
-        }
-
-        int totalExperience = 0;
-        for (Player player : players) {
-            totalExperience += getPlayerExperience(player);
-        }
-
-        return totalExperience / players.size();
-    }
-
-    private static int getPlayerExperience(Player player) {
-        Character pCharacter = player.getCharacter();
-        User pUser = pCharacter.getUser();
-
-        if (pUser.getMainCharacterId() != null && pCharacter.getId().equals(pUser.getMainCharacterId())) {
-            return pUser.getMainExp();
-        }
 
-        return pUser.getAltExp();
+        return entry;
     }
 
     private static int checkFriendsAndBlocked(Character character, List<Player> players) {
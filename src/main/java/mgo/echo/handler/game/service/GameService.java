@@ -9,8 +9,6 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.hibernate.Session;
 
-import com.google.gson.JsonArray;
-
 import mgo.echo.data.entity.Character;
 import mgo.echo.data.entity.ConnectionInfo;
 import mgo.echo.data.entity.EventConnectGame;
@@ -21,6 +19,8 @@ import mgo.echo.data.entity.Lobby;
 import mgo.echo.data.entity.Player;
 import mgo.echo.data.entity.User;
 import mgo.echo.data.repository.DbManager;
+import mgo.echo.data.repository.EventSink;
+import mgo.echo.handler.game.dto.GameConfig;
 import mgo.echo.handler.game.dto.JoinResult;
 import mgo.echo.handler.social.packet.ChatPacketHandler;
 import mgo.echo.session.ActiveGames;
@@ -39,23 +39,8 @@ public class GameService {
     // =========================================================================
 
     public static List<Game> filterGames(Lobby lobby, int type) {
-        Collection<Game> games = ActiveGames.getGames();
-        ArrayList<Game> filtered = new ArrayList<>();
-
-        for (Game game : games) {
-            if (type == 0x200) {
-                if (game.getName().startsWith("CLAN_ROOM_")) {
-                    filtered.add(game);
-                }
-                continue;
-            }
-
-            if (game.getLobby() == lobby && !game.getName().startsWith("CLAN_ROOM_")) {
-                filtered.add(game);
-            }
-        }
-
-        return filtered;
+        Collection<Game> games = type == 0x200 ? ActiveGames.getClanRooms() : ActiveGames.getByLobby(lobby.getId());
+        return new ArrayList<>(games);
     }
 
     // =========================================================================
@@ -122,15 +107,9 @@ public class GameService {
     }
 
     public static int[] getCurrentMapRule(Game game) {
-        JsonArray jGames = Util.jsonDecodeArray(game.getGames());
+        GameConfig config = GameConfig.of(game);
         int currentGame = game.getCurrentGame();
-
-        if (currentGame < jGames.size()) {
-            JsonArray jGame = jGames.get(currentGame).getAsJsonArray();
-            return new int[] { jGame.get(0).getAsInt(), jGame.get(1).getAsInt() };
-        }
-
-        return new int[] { 0, 0 };
+        return new int[] { config.rule(currentGame), config.map(currentGame) };
     }
 
     // =========================================================================
@@ -324,11 +303,7 @@ public class GameService {
         event.setGameId(gameId);
         event.setCharaId(charaId);
 
-        Session session = DbManager.getSession();
-        session.beginTransaction();
-        session.save(event);
-        session.getTransaction().commit();
-        DbManager.closeSession(session);
+        EventSink.publish(event);
     }
 
     public static int gameRemovePlayer(Game game, int charaId, boolean checkGame) {
@@ -406,11 +381,7 @@ public class GameService {
         event.setGameId(gameId);
         event.setCharaId(charaId);
 
-        Session session = DbManager.getSession();
-        session.beginTransaction();
-        session.save(event);
-        session.getTransaction().commit();
-        DbManager.closeSession(session);
+        EventSink.publish(event);
     }
 
     // =========================================================================
@@ -472,10 +443,6 @@ public class GameService {
         event.setTime((int) Instant.now().getEpochSecond());
         event.setGameId(gameId);
 
-        Session session = DbManager.getSession();
-        session.beginTransaction();
-        session.save(event);
-        session.getTransaction().commit();
-        DbManager.closeSession(session);
+        EventSink.publish(event);
     }
 }
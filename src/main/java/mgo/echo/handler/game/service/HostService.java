@@ -20,6 +20,7 @@ import mgo.echo.data.entity.Lobby;
 import mgo.echo.data.entity.Player;
 import mgo.echo.data.entity.User;
 import mgo.echo.data.repository.DbManager;
+import mgo.echo.data.repository.EventSink;
 import mgo.echo.plugin.PluginHandler;
 import mgo.echo.session.ActiveGames;
 import mgo.echo.session.ActiveUsers;
@@ -135,7 +136,7 @@ public class HostService {
         event.setGameId(game.getId());
         event.setName(name);
 
-        DbManager.txVoid(session -> session.save(event));
+        EventSink.publish(event);
     }
 
     // =========================================================================
@@ -225,7 +226,7 @@ public class HostService {
         // Try to find player in game
         Player targetPlayer = game.getPlayerByCharacterId(targetId);
         if (targetPlayer != null) {
-            return updateStatsForPlayer(targetPlayer.getCharacter(), roundStats);
+            return queueStats(game, targetPlayer.getCharacter(), roundStats);
         }
 
         // Check if player was in last round
@@ -238,51 +239,22 @@ public class HostService {
         // Try to find online user
         User targetUser = ActiveUsers.getByCharacterId(targetId);
         if (targetUser != null) {
-            return updateStatsForPlayer(targetUser.getCurrentCharacter(), roundStats);
+            return queueStats(game, targetUser.getCurrentCharacter(), roundStats);
         }
 
-        // Fallback to database lookup
-        return updateStatsFromDb(targetId, roundStats);
-    }
-
-    private static int updateStatsForPlayer(Character targetCharacter, StatsService.RoundStats roundStats) {
-        User targetUser = targetCharacter.getUser();
-
-        Session session = DbManager.getSession();
-        session.beginTransaction();
-
-        StatsService.updatePlayerExperience(session, targetUser, targetCharacter, roundStats.experience,
-                roundStats.aborted);
-        StatsService.updateCharacterStats(session, targetCharacter, roundStats);
-
-        session.getTransaction().commit();
-        DbManager.closeSession(session);
+        // Offline, experience is computed from the stored character
+        StatsBatcher.add(game.getId(), targetId, null, roundStats);
         return 0;
     }
 
-    private static int updateStatsFromDb(int targetId, StatsService.RoundStats roundStats) {
-        Session session = DbManager.getSession();
-        session.beginTransaction();
-
-        Character targetCharacter = session.get(Character.class, targetId);
-        if (targetCharacter == null) {
-            logger.error("Error while updating stats: Character doesn't exist.");
-            session.getTransaction().commit();
-            DbManager.closeSession(session);
-            return 0;
-        }
-
+    private static int queueStats(Game game, Character targetCharacter, StatsService.RoundStats roundStats) {
         User targetUser = targetCharacter.getUser();
+
         int currentExp = StatsService.getCurrentExperience(targetUser, targetCharacter);
         int finalExp = StatsService.calculateFinalExperience(currentExp, roundStats.experience, roundStats.aborted);
+        StatsService.setExperience(targetUser, targetCharacter, finalExp);
 
-        User aUser = session.get(User.class, targetUser.getId());
-        StatsService.setExperience(aUser, targetCharacter, finalExp);
-
-        StatsService.updateCharacterStats(session, targetCharacter, roundStats);
-
-        session.getTransaction().commit();
-        DbManager.closeSession(session);
+        StatsBatcher.add(game.getId(), targetCharacter.getId(), finalExp, roundStats);
         return 0;
     }
 
@@ -330,6 +302,8 @@ public class HostService {
     // =========================================================================
 
     public static void startRound(Game game) {
+        StatsBatcher.flush(game.getId());
+
         List<Integer> playersLastRound = game.getPlayersLastRound();
         playersLastRound.clear();
 
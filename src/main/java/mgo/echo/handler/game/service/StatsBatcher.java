@@ -0,0 +1,206 @@
+package mgo.echo.handler.game.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.hibernate.Session;
+
+import mgo.echo.data.entity.Character;
+import mgo.echo.data.entity.CharacterStats;
+import mgo.echo.data.repository.DbManager;
+
+/**
+ * Collects a round's 0x4390 stats per game and writes them in one transaction.
+ *
+ * A game's batch is written shortly after the first update of a round arrives,
+ * or when the next round starts. Batches are written one at a time, in order,
+ * on the batcher's own thread, so two batches never update the same character
+ * at once and a later batch's experience is never overwritten by an earlier
+ * one. Stats and characters are loaded with one query each and Hibernate
+ * batches the updates. A failed write is rolled back and retried in place with
+ * fresh rows, holding back the batches behind it.
+ */
+public class StatsBatcher {
+    private static final Logger logger = LogManager.getLogger(StatsBatcher.class);
+
+    private static final long FLUSH_DELAY_MS = 500;
+    private static final long RETRY_DELAY_MS = 1000;
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+
+    private static final ConcurrentHashMap<Integer, RoundBatch> pending = new ConcurrentHashMap<>();
+
+    private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor((r) -> {
+        Thread thread = new Thread(r, "Stats Batcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final class Entry {
+        private final int charaId;
+        private final Integer finalExp;
+        private final StatsService.RoundStats stats;
+
+        private Entry(int charaId, Integer finalExp, StatsService.RoundStats stats) {
+            this.charaId = charaId;
+            this.finalExp = finalExp;
+            this.stats = stats;
+        }
+    }
+
+    private static final class RoundBatch {
+        private final List<Entry> entries = new ArrayList<>();
+        private ScheduledFuture<?> timer;
+    }
+
+    /**
+     * Queue a character's round stats.
+     *
+     * @param finalExp Experience already applied to the online character, or
+     *                 null to compute it from the stored value
+     */
+    public static void add(int gameId, int charaId, Integer finalExp, StatsService.RoundStats stats) {
+        pending.compute(gameId, (k, batch) -> {
+            if (batch == null) {
+                batch = new RoundBatch();
+            }
+
+            batch.entries.add(new Entry(charaId, finalExp, stats));
+            if (batch.timer == null) {
+                batch.timer = scheduler.schedule(() -> flush(k), FLUSH_DELAY_MS, TimeUnit.MILLISECONDS);
+            }
+            return batch;
+        });
+    }
+
+    /**
+     * Write a game's queued stats now.
+     */
+    public static void flush(int gameId) {
+        RoundBatch batch = pending.remove(gameId);
+        if (batch == null) {
+            return;
+        }
+
+        batch.timer.cancel(false);
+        submit(batch.entries);
+    }
+
+    /**
+     * Write everything still queued and stop the writer thread.
+     */
+    public static void stop() {
+        for (Integer gameId : pending.keySet()) {
+            flush(gameId);
+        }
+
+        scheduler.shutdown();
+        try {
+            if (!scheduler.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                logger.error("Timed out writing stats, {} batches dropped.", scheduler.shutdownNow().size());
+            }
+        } catch (InterruptedException e) {
+            logger.error("Interrupted writing stats, {} batches dropped.", scheduler.shutdownNow().size());
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void submit(List<Entry> entries) {
+        try {
+            scheduler.execute(() -> writeWithRetry(entries));
+        } catch (RejectedExecutionException e) {
+            logger.error("Stats batcher is stopped, {} stats dropped.", entries.size());
+        }
+    }
+
+    private static void writeWithRetry(List<Entry> entries) {
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            try {
+                DbManager.txVoidOrThrow(session -> write(session, entries));
+                return;
+            } catch (Exception e) {
+                if (attempt == MAX_ATTEMPTS) {
+                    logger.error("Failed to write {} stats after {} attempts, dropped.", entries.size(), attempt, e);
+                    return;
+                }
+
+                logger.warn("Failed to write {} stats (attempt {}), retrying.", entries.size(), attempt, e);
+            }
+
+            try {
+                Thread.sleep(RETRY_DELAY_MS * attempt);
+            } catch (InterruptedException e) {
+                logger.error("Interrupted retrying stats, {} stats dropped.", entries.size());
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private static void write(Session session, List<Entry> entries) {
+        Set<Integer> ids = new HashSet<>();
+        for (Entry entry : entries) {
+            ids.add(entry.charaId);
+        }
+
+        Map<Integer, Character> characters = new HashMap<>();
+        for (Character character : session
+                .createQuery("FROM Character WHERE id IN :ids", Character.class)
+                .setParameter("ids", ids)
+                .list()) {
+            characters.put(character.getId(), character);
+        }
+
+        Map<Integer, CharacterStats> statsByChara = new HashMap<>();
+        for (CharacterStats stats : session
+                .createQuery("FROM CharacterStats WHERE charaId IN :ids", CharacterStats.class)
+                .setParameter("ids", ids)
+                .list()) {
+            statsByChara.put(stats.getCharaId(), stats);
+        }
+
+        for (Entry entry : entries) {
+            Character character = characters.get(entry.charaId);
+            if (character == null) {
+                logger.error("Error while updating stats: Character {} doesn't exist.", entry.charaId);
+                continue;
+            }
+
+            StatsService.RoundStats roundStats = entry.stats;
+            if (entry.finalExp != null) {
+                character.setExp(entry.finalExp);
+            } else {
+                int currentExp = StatsService.getCurrentExperience(character.getUser(), character);
+                StatsService.setExperience(character.getUser(), character,
+                        StatsService.calculateFinalExperience(currentExp, roundStats.experience, roundStats.aborted));
+            }
+
+            CharacterStats stats = statsByChara.get(entry.charaId);
+            if (stats == null) {
+                stats = new CharacterStats();
+                stats.setCharacter(character);
+                session.persist(stats);
+                statsByChara.put(entry.charaId, stats);
+            }
+
+            StatsService.applyRoundStats(stats, roundStats);
+
+            logger.info("Updated stats for character {}: +{} kills, +{} deaths, +{} score (mode={})",
+                    character.getName(), roundStats.kills, roundStats.deaths, roundStats.score, roundStats.gameMode);
+        }
+
+        logger.debug("Wrote {} stats for {} characters.", entries.size(), ids.size());
+    }
+}
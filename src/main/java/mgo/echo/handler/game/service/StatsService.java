@@ -4,17 +4,14 @@ import java.time.Instant;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.hibernate.Session;
-
-import com.google.gson.JsonArray;
-import com.google.gson.JsonObject;
 
 import io.netty.buffer.ByteBuf;
 import mgo.echo.data.entity.Character;
 import mgo.echo.data.entity.CharacterStats;
 import mgo.echo.data.entity.Game;
+import mgo.echo.data.entity.ModeStats;
 import mgo.echo.data.entity.User;
-import mgo.echo.util.Util;
+import mgo.echo.handler.game.dto.GameConfig;
 
 /**
  * Service for handling game statistics parsing and persistence
@@ -80,26 +77,11 @@ public class StatsService {
     }
 
     /**
-     * Get game mode (rule) from the game's JSON config
-     * games is a JSON array like [[rule, map, flags], ...]
-     * currentGame is the index into that array
+     * Get game mode (rule) of the current round from the game's parsed config
      */
     public static int getGameModeFromGame(Game game) {
         try {
-            String gamesJson = game.getGames();
-            int currentIndex = game.getCurrentGame();
-
-            if (gamesJson == null || gamesJson.isEmpty()) {
-                return 0;
-            }
-
-            JsonArray games = Util.jsonDecodeArray(gamesJson);
-            if (currentIndex < 0 || currentIndex >= games.size()) {
-                return 0;
-            }
-
-            JsonArray currentGame = games.get(currentIndex).getAsJsonArray();
-            return currentGame.get(0).getAsInt(); // rule is first element
+            return GameConfig.of(game).rule(game.getCurrentGame());
         } catch (Exception e) {
             logger.warn("Failed to get game mode from game config: {}", e.getMessage());
         }
@@ -180,53 +162,18 @@ public class StatsService {
     }
 
     /**
-     * Update player experience in database (per-character EXP)
+     * Add one round's stats to a character's totals and per-mode stats
      */
-    public static void updatePlayerExperience(Session session, User targetUser, Character targetCharacter,
-            int experience, boolean aborted) {
-        int currentExp = getCurrentExperience(targetUser, targetCharacter);
-        int finalExp = calculateFinalExperience(currentExp, experience, aborted);
-
-        // Update character's EXP in database
-        Character aCharacter = session.get(Character.class, targetCharacter.getId());
-        if (aCharacter != null) {
-            aCharacter.setExp(finalExp);
-        }
-        targetCharacter.setExp(finalExp);
-    }
-
-    /**
-     * Update character stats in database
-     */
-    public static void updateCharacterStats(Session session, Character targetCharacter, RoundStats roundStats) {
-        CharacterStats stats = session.createQuery(
-                "FROM CharacterStats WHERE charaId = :charaId", CharacterStats.class)
-                .setParameter("charaId", targetCharacter.getId())
-                .uniqueResultOptional()
-                .orElse(null);
-
-        if (stats == null) {
-            stats = new CharacterStats();
-            stats.setCharacter(targetCharacter);
-        }
-
-        // Add round stats to totals
+    public static void applyRoundStats(CharacterStats stats, RoundStats roundStats) {
         addCombatStats(stats, roundStats);
         addCommunicationStats(stats, roundStats);
         addGameModeStats(stats, roundStats);
         addEquipmentStats(stats, roundStats);
         addPointsAndTime(stats, roundStats);
 
-        // Update per-mode JSON stats
         updateModeStats(stats, roundStats);
 
-        // Update timestamp
         stats.setLastUpdated((int) Instant.now().getEpochSecond());
-
-        session.saveOrUpdate(stats);
-
-        logger.info("Updated stats for character {}: +{} kills, +{} deaths, +{} score (mode={})",
-                targetCharacter.getName(), roundStats.kills, roundStats.deaths, roundStats.score, roundStats.gameMode);
     }
 
     /**
@@ -311,77 +258,33 @@ public class StatsService {
     }
 
     /**
-     * Update per-game-mode JSON stats
+     * Update per-game-mode stats
      */
     private static void updateModeStats(CharacterStats stats, RoundStats roundStats) {
-        try {
-            String currentJson = stats.getStatsByMode(roundStats.gameMode);
-            JsonObject modeStats = createOrLoadModeStats(currentJson);
-
-            modeStats.addProperty("wins", getJsonInt(modeStats, "wins") + roundStats.wins);
-            modeStats.addProperty("rounds", getJsonInt(modeStats, "rounds") + 1);
-            modeStats.addProperty("score", getJsonInt(modeStats, "score") + roundStats.score);
-            modeStats.addProperty("time", getJsonInt(modeStats, "time") + roundStats.time);
-            modeStats.addProperty("kills", getJsonInt(modeStats, "kills") + roundStats.kills);
-            modeStats.addProperty("deaths", getJsonInt(modeStats, "deaths") + roundStats.deaths);
-            modeStats.addProperty("stuns", getJsonInt(modeStats, "stuns") + roundStats.stuns);
-            modeStats.addProperty("stunsRec", getJsonInt(modeStats, "stunsRec") + roundStats.stunsReceived);
-            modeStats.addProperty("hsKills", getJsonInt(modeStats, "hsKills") + roundStats.headshotKills);
-            modeStats.addProperty("hsDeaths", getJsonInt(modeStats, "hsDeaths") + roundStats.headshotDeaths);
-            modeStats.addProperty("hsStuns", getJsonInt(modeStats, "hsStuns") + roundStats.headshotStuns);
-            modeStats.addProperty("hsStunsRec", getJsonInt(modeStats, "hsStunsRec") + roundStats.headshotStunsReceived);
-            modeStats.addProperty("lockKills", getJsonInt(modeStats, "lockKills") + roundStats.lockKills);
-            modeStats.addProperty("lockDeaths", getJsonInt(modeStats, "lockDeaths") + roundStats.lockDeaths);
-            modeStats.addProperty("lockStuns", getJsonInt(modeStats, "lockStuns") + roundStats.lockStuns);
-            modeStats.addProperty("lockStunsRec", getJsonInt(modeStats, "lockStunsRec") + roundStats.lockStunsReceived);
-
-            stats.setStatsByMode(roundStats.gameMode, Util.jsonEncode(modeStats));
-
-            logger.debug("Updated mode {} stats: kills={}, deaths={}, score={}",
-                    roundStats.gameMode, getJsonInt(modeStats, "kills"),
-                    getJsonInt(modeStats, "deaths"), getJsonInt(modeStats, "score"));
-        } catch (Exception e) {
-            logger.warn("Failed to update mode stats: {}", e.getMessage());
-        }
-    }
-
-    /**
-     * Create or load mode-specific stats from JSON
-     */
-    private static JsonObject createOrLoadModeStats(String currentJson) {
-        if (currentJson != null && !currentJson.isEmpty()) {
-            return Util.jsonDecode(currentJson);
-        }
-
-        JsonObject modeStats = new JsonObject();
-        modeStats.addProperty("wins", 0);
-        modeStats.addProperty("rounds", 0);
-        modeStats.addProperty("score", 0);
-        modeStats.addProperty("time", 0);
-        modeStats.addProperty("kills", 0);
-        modeStats.addProperty("deaths", 0);
-        modeStats.addProperty("stuns", 0);
-        modeStats.addProperty("stunsRec", 0);
-        modeStats.addProperty("hsKills", 0);
-        modeStats.addProperty("hsDeaths", 0);
-        modeStats.addProperty("hsStuns", 0);
-        modeStats.addProperty("hsStunsRec", 0);
-        modeStats.addProperty("lockKills", 0);
-        modeStats.addProperty("lockDeaths", 0);
-        modeStats.addProperty("lockStuns", 0);
-        modeStats.addProperty("lockStunsRec", 0);
-
-        return modeStats;
-    }
-
-    /**
-     * Get an integer value from JSON, defaulting to 0 if not found
-     */
-    private static int getJsonInt(JsonObject json, String key) {
-        if (!json.has(key) || json.get(key).isJsonNull()) {
-            return 0;
+        ModeStats modeStats = stats.getStatsByMode(roundStats.gameMode);
+        if (modeStats == null) {
+            modeStats = new ModeStats();
+            stats.setStatsByMode(roundStats.gameMode, modeStats);
         }
 
-        return json.get(key).getAsInt();
+        modeStats.add(ModeStats.WINS, roundStats.wins);
+        modeStats.add(ModeStats.ROUNDS, 1);
+        modeStats.add(ModeStats.SCORE, roundStats.score);
+        modeStats.add(ModeStats.TIME, roundStats.time);
+        modeStats.add(ModeStats.KILLS, roundStats.kills);
+        modeStats.add(ModeStats.DEATHS, roundStats.deaths);
+        modeStats.add(ModeStats.STUNS, roundStats.stuns);
+        modeStats.add(ModeStats.STUNS_REC, roundStats.stunsReceived);
+        modeStats.add(ModeStats.HS_KILLS, roundStats.headshotKills);
+        modeStats.add(ModeStats.HS_DEATHS, roundStats.headshotDeaths);
+        modeStats.add(ModeStats.HS_STUNS, roundStats.headshotStuns);
+        modeStats.add(ModeStats.HS_STUNS_REC, roundStats.headshotStunsReceived);
+        modeStats.add(ModeStats.LOCK_KILLS, roundStats.lockKills);
+        modeStats.add(ModeStats.LOCK_DEATHS, roundStats.lockDeaths);
+        modeStats.add(ModeStats.LOCK_STUNS, roundStats.lockStuns);
+        modeStats.add(ModeStats.LOCK_STUNS_REC, roundStats.lockStunsReceived);
+
+        logger.debug("Updated mode {} stats: kills={}, deaths={}, score={}",
+                roundStats.gameMode, modeStats.getKills(), modeStats.getDeaths(), modeStats.getScore());
     }
 }
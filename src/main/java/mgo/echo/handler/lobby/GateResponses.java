@@ -0,0 +1,201 @@
+package mgo.echo.handler.lobby;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import mgo.echo.data.entity.Lobby;
+import mgo.echo.data.entity.News;
+import mgo.echo.data.repository.DbCache;
+import mgo.echo.data.repository.DbManager;
+import mgo.echo.protocol.Packet;
+import mgo.echo.session.ActiveLobbies;
+import mgo.echo.util.Util;
+
+/**
+ * Pre-encoded gate lobby responses.
+ *
+ * The lobby list (0x2003) and news (0x200a) payloads are the same for every
+ * client, so they're encoded once into read-only direct buffers and each
+ * request writes retained duplicates of them. They're re-encoded on the
+ * periodic service tick, after lobby player counts are updated, or whenever
+ * {@link #refresh()} is called after an admin change.
+ */
+public class GateResponses {
+    private static final Logger logger = LogManager.getLogger(GateResponses.class);
+
+    private static final int LOBBIES_PER_PAYLOAD = 22;
+    private static final int LOBBY_LENGTH = 0x2e;
+
+    private static final int NEWS_HEADER_LENGTH = 138;
+
+    private static final Object lock = new Object();
+    private static ByteBuf[] lobbyList;
+    private static ByteBuf[] news;
+
+    private GateResponses() {
+    }
+
+    /**
+     * @return Duplicates of the 0x2003 payloads; the caller owns them
+     */
+    public static ByteBuf[] getLobbyList() {
+        synchronized (lock) {
+            if (lobbyList == null) {
+                swapLobbyList(encodeLobbyList());
+            }
+            return duplicate(lobbyList);
+        }
+    }
+
+    /**
+     * @return Duplicates of the 0x200a payloads; the caller owns them
+     */
+    public static ByteBuf[] getNews() {
+        synchronized (lock) {
+            if (news == null) {
+                swapNews(encodeNews());
+            }
+            return duplicate(news);
+        }
+    }
+
+    /**
+     * Re-encode both responses. A failed encode keeps the previous payloads.
+     */
+    public static void refresh() {
+        try {
+            ByteBuf[] encoded = encodeLobbyList();
+            synchronized (lock) {
+                swapLobbyList(encoded);
+            }
+        } catch (Exception e) {
+            logger.error("Failed to encode lobby list.", e);
+        }
+
+        try {
+            ByteBuf[] encoded = encodeNews();
+            synchronized (lock) {
+                swapNews(encoded);
+            }
+        } catch (Exception e) {
+            logger.error("Failed to encode news.", e);
+        }
+    }
+
+    public static void clear() {
+        synchronized (lock) {
+            swapLobbyList(null);
+            swapNews(null);
+        }
+    }
+
+    private static void swapLobbyList(ByteBuf[] encoded) {
+        Util.releaseBuffers(lobbyList);
+        lobbyList = encoded;
+    }
+
+    private static void swapNews(ByteBuf[] encoded) {
+        Util.releaseBuffers(news);
+        news = encoded;
+    }
+
+    private static ByteBuf[] duplicate(ByteBuf[] payloads) {
+        ByteBuf[] duplicates = new ByteBuf[payloads.length];
+        for (int i = 0; i < payloads.length; i++) {
+            duplicates[i] = payloads[i].retainedDuplicate();
+        }
+        return duplicates;
+    }
+
+    // ========================================================================
+    // Encoding
+    // ========================================================================
+
+    private static ByteBuf[] encodeLobbyList() {
+        Collection<Lobby> lobbies = ActiveLobbies.get().values();
+
+        List<ByteBuf> payloads = new ArrayList<>();
+        try {
+            ByteBuf bo = null;
+            int i = 0;
+            for (Lobby lobby : lobbies) {
+                if (i % LOBBIES_PER_PAYLOAD == 0) {
+                    int remaining = Math.min(LOBBIES_PER_PAYLOAD, lobbies.size() - i);
+                    bo = Unpooled.directBuffer(Math.max(remaining, 1) * LOBBY_LENGTH);
+                    payloads.add(bo);
+                }
+
+                boolean beginner = false;
+                boolean expansion = false;
+                boolean noHeadshot = false;
+
+                int restriction = 0;
+                restriction |= beginner ? 0b1 : 0;
+                restriction |= expansion ? 0b1000 : 0;
+                restriction |= noHeadshot ? 0b10000 : 0;
+
+                bo.writeInt(i).writeInt(lobby.getType());
+                Util.writeString(lobby.getName(), 16, bo);
+                Util.writeString(lobby.getIp(), 15, bo);
+                bo.writeShort(lobby.getPort()).writeShort(lobby.getPlayers()).writeShort(lobby.getId())
+                        .writeByte(restriction);
+                i++;
+            }
+        } catch (RuntimeException e) {
+            releaseAll(payloads);
+            throw e;
+        }
+
+        return readOnly(payloads);
+    }
+
+    private static ByteBuf[] encodeNews() {
+        List<News> items = DbManager.txOrThrow(session -> session
+                .createQuery("from News n order by n.id desc", News.class)
+                .setCacheable(true)
+                .setCacheRegion(DbCache.QUERY_NEWS)
+                .list());
+
+        List<ByteBuf> payloads = new ArrayList<>(items.size());
+        try {
+            for (News item : items) {
+                String message = item.getMessage();
+
+                int length = Math.min(message.length(), Packet.MAX_PAYLOAD_LENGTH - NEWS_HEADER_LENGTH);
+                message = message.substring(0, length);
+
+                ByteBuf bo = Unpooled.directBuffer(NEWS_HEADER_LENGTH + length);
+                payloads.add(bo);
+
+                bo.writeInt(item.getId()).writeBoolean(item.getImportant()).writeInt(item.getTime());
+                Util.writeString(item.getTopic(), 128, bo);
+                Util.writeString(message, length + 1, bo);
+            }
+        } catch (RuntimeException e) {
+            releaseAll(payloads);
+            throw e;
+        }
+
+        return readOnly(payloads);
+    }
+
+    private static void releaseAll(List<ByteBuf> payloads) {
+        for (ByteBuf payload : payloads) {
+            Util.releaseBuffer(payload);
+        }
+    }
+
+    private static ByteBuf[] readOnly(List<ByteBuf> payloads) {
+        ByteBuf[] result = new ByteBuf[payloads.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = payloads.get(i).asReadOnly();
+        }
+        return result;
+    }
+}
@@ -9,6 +9,7 @@ import org.apache.logging.log4j.Logger;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandlerContext;
 import mgo.echo.data.entity.Character;
 import mgo.echo.data.entity.Game;
@@ -61,42 +62,15 @@ public class ChatPacketHandler {
 
     public static void sendServerMessageToGame(String message, Game game) {
         String fmessage = SERVER_MESSAGE_PREFIX + message;
+        ByteBuf template = null;
 
         try {
-            ArrayList<Player> recipients = new ArrayList<>(game.getPlayers());
-
-            ActiveChannels.process((ch) -> {
-                try {
-                    User targetUser = ActiveUsers.get(ch);
-                    Character targetCharacter = targetUser.getCurrentCharacter();
-
-                    if (targetCharacter == null) {
-                        return false;
-                    }
-
-                    return recipients.stream()
-                            .anyMatch(e -> e.getCharacterId() == targetCharacter.getId());
-                } catch (Exception e) {
-                    logger.error("Exception during chat processing.", e);
-                    return false;
-                }
-            }, (ch) -> {
-                ByteBuf bo = null;
-
-                try {
-                    User targetUser = ActiveUsers.get(ch);
-                    Character targetCharacter = targetUser.getCurrentCharacter();
-
-                    bo = constructMessage(targetCharacter.getId(), 0x30, fmessage);
-                    Packets.write(ch, 0x4401, bo);
-                    Packets.flush(ch);
-                } catch (Exception e) {
-                    logger.error("Exception during chat processing.", e);
-                    Util.releaseBuffer(bo);
-                }
-            });
+            template = constructMessage(0, 0x30, fmessage);
+            broadcastToCharacters(getChannels(game.getPlayers()), template);
         } catch (Exception e) {
             logger.error("Exception during chat processing.", e);
+        } finally {
+            Util.releaseBuffer(template);
         }
     }
 
@@ -277,36 +251,14 @@ public class ChatPacketHandler {
 
     private static void sendNormalMessage(ChannelHandlerContext ctx, ChatMessage chatMessage,
             Character character, int flag2, List<Player> players) {
-        ArrayList<Player> recipients = new ArrayList<>(players);
         String fmessage = chatMessage.getMessage();
 
-        ActiveChannels.process((ch) -> {
-            try {
-                User targetUser = ActiveUsers.get(ch);
-                Character targetCharacter = targetUser.getCurrentCharacter();
-
-                if (targetCharacter == null) {
-                    return false;
-                }
-
-                return recipients.stream()
-                        .anyMatch(e -> e.getCharacterId() == targetCharacter.getId());
-            } catch (Exception e) {
-                logger.error("Exception during chat processing.", e);
-                return false;
-            }
-        }, (ch) -> {
-            ByteBuf bo = null;
-
-            try {
-                bo = constructMessage(ctx, character.getId(), flag2, fmessage);
-                Packets.write(ch, 0x4401, bo);
-                Packets.flush(ch);
-            } catch (Exception e) {
-                logger.error("Exception during chat processing.", e);
-                Util.releaseBuffer(bo);
-            }
-        });
+        try {
+            ByteBuf bo = constructMessage(ctx, character.getId(), flag2, fmessage);
+            Packets.broadcast(getChannels(players), 0x4401, bo);
+        } catch (Exception e) {
+            logger.error("Exception during chat processing.", e);
+        }
     }
 
     private static void sendSelfMessage(ChannelHandlerContext ctx, ChatMessage chatMessage,
@@ -325,65 +277,68 @@ public class ChatPacketHandler {
 
     private static void sendRoomMessage(ChannelHandlerContext ctx, ChatMessage chatMessage,
             Character character, int flag2, List<Player> players) {
-        ArrayList<Player> recipients = new ArrayList<>(players);
         String fmessage = SERVER_MESSAGE_PREFIX + chatMessage.getMessage();
 
-        ActiveChannels.process((ch) -> {
-            try {
-                User targetUser = ActiveUsers.get(ch);
-                Character targetCharacter = targetUser.getCurrentCharacter();
-
-                if (targetCharacter == null) {
-                    return false;
-                }
-
-                return recipients.stream()
-                        .anyMatch(e -> e.getCharacterId() == targetCharacter.getId());
-            } catch (Exception e) {
-                logger.error("Exception during chat processing.", e);
-                return false;
-            }
-        }, (ch) -> {
-            ByteBuf bo = null;
-
-            try {
-                bo = constructMessage(ctx, character.getId(), flag2, fmessage);
-                Packets.write(ch, 0x4401, bo);
-                Packets.flush(ch);
-            } catch (Exception e) {
-                logger.error("Exception during chat processing.", e);
-                Util.releaseBuffer(bo);
-            }
-        });
+        try {
+            ByteBuf bo = constructMessage(ctx, character.getId(), flag2, fmessage);
+            Packets.broadcast(getChannels(players), 0x4401, bo);
+        } catch (Exception e) {
+            logger.error("Exception during chat processing.", e);
+        }
     }
 
     private static void sendGlobalMessage(ChannelHandlerContext ctx, ChatMessage chatMessage,
             Character character, int flag2) {
         String fmessage = SERVER_MESSAGE_PREFIX + chatMessage.getMessage();
+        ByteBuf template = null;
 
-        ActiveChannels.process((ch) -> {
-            try {
-                User targetUser = ActiveUsers.get(ch);
-                Character targetCharacter = targetUser.getCurrentCharacter();
-                return targetCharacter != null;
-            } catch (Exception e) {
-                logger.error("Exception during chat processing.", e);
-                return false;
+        try {
+            template = constructMessage(ctx, 0, flag2, fmessage);
+            broadcastToCharacters(ActiveUsers.getCharacterChannels(), template);
+        } catch (Exception e) {
+            logger.error("Exception during chat processing.", e);
+        } finally {
+            Util.releaseBuffer(template);
+        }
+    }
+
+    // ========================================================================
+    // Fan-out
+    // ========================================================================
+
+    /**
+     * Channels of the players' characters, looked up through the character
+     * index.
+     */
+    private static List<Channel> getChannels(List<Player> players) {
+        List<Player> recipients = new ArrayList<>(players);
+        List<Channel> channels = new ArrayList<>(recipients.size());
+        for (Player player : recipients) {
+            Channel channel = ActiveUsers.getChannelByCharacterId(player.getCharacterId());
+            if (channel != null) {
+                channels.add(channel);
             }
-        }, (ch) -> {
-            ByteBuf bo = null;
-
-            try {
-                User targetUser = ActiveUsers.get(ch);
-                Character targetCharacter = targetUser.getCurrentCharacter();
-
-                bo = constructMessage(ctx, targetCharacter.getId(), flag2, fmessage);
-                Packets.write(ch, 0x4401, bo);
-                Packets.flush(ch);
-            } catch (Exception e) {
-                logger.error("Exception during chat processing.", e);
-                Util.releaseBuffer(bo);
+        }
+        return channels;
+    }
+
+    /**
+     * Send an encoded message addressed to each recipient's own character.
+     * Every copy is the template with the character id patched in.
+     */
+    private static void broadcastToCharacters(Iterable<Channel> channels, ByteBuf template) {
+        int length = template.capacity();
+
+        Packets.broadcast(channels, 0x4401, (ch) -> {
+            User targetUser = ActiveUsers.get(ch);
+            Character targetCharacter = targetUser != null ? targetUser.getCurrentCharacter() : null;
+            if (targetCharacter == null) {
+                return null;
             }
+
+            ByteBuf bo = ch.alloc().directBuffer(length, length);
+            bo.writeBytes(template, 0, length).setInt(0, targetCharacter.getId());
+            return bo;
         });
     }
 }
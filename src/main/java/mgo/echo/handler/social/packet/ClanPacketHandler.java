@@ -20,10 +20,14 @@ import mgo.echo.data.entity.Player;
 import mgo.echo.data.entity.User;
 import mgo.echo.data.repository.DbManager;
 import mgo.echo.handler.account.service.AccountService;
+import mgo.echo.handler.social.service.ClanDirectory;
+import mgo.echo.handler.social.service.ClanEmblemCache;
+import mgo.echo.handler.social.service.ClanService;
 import mgo.echo.protocol.Packet;
 import mgo.echo.protocol.command.ClansCmd;
 import mgo.echo.session.ActiveGames;
 import mgo.echo.session.ActiveUsers;
+import mgo.echo.util.AssetStore;
 import mgo.echo.util.Error;
 import mgo.echo.util.Packets;
 import mgo.echo.util.Util;
@@ -32,83 +36,49 @@ public class ClanPacketHandler {
     private static final Logger logger = LogManager.getLogger();
 
     public static void getEmblem(ChannelHandlerContext ctx, Packet in, int command, boolean getWip) {
-        ByteBuf bo = null;
-
         try {
             ByteBuf bi = in.getPayload();
             int clanId = bi.readInt();
 
-            Clan clan = DbManager.tx(session -> session.get(Clan.class, clanId));
-
-            if (clan == null) {
+            ByteBuf bo = ClanEmblemCache.get(clanId, getWip);
+            if (bo == null) {
                 Packets.write(ctx, command, Error.CLAN_DOESNOTEXIST);
                 return;
             }
 
-            bo = ctx.alloc().directBuffer(4 + 565);
-            bo.writeInt(0);
-            writeEmblemData(bo, clan, getWip);
-
             Packets.write(ctx, command, bo);
         } catch (Exception e) {
             logger.error("Exception while getting clan emblem.", e);
-            Util.releaseBuffer(bo);
             Packets.write(ctx, command, Error.GENERAL);
         }
     }
 
-    private static void writeEmblemData(ByteBuf bo, Clan clan, boolean getWip) {
-        if (getWip && clan.getEmblemWip() != null) {
-            bo.writeBytes(clan.getEmblemWip());
-            return;
-        }
-
-        if (clan.getEmblem() != null) {
-            bo.writeBytes(clan.getEmblem());
-            return;
-        }
-
-        bo.writeZero(565);
+    public static void getList(ChannelHandlerContext ctx, Packet in) {
+        writeClanList(ctx, ClanService.getClanList(), ClansCmd.GET_LIST_START, ClansCmd.GET_LIST_DATA,
+                ClansCmd.GET_LIST_END);
     }
 
-    public static void getList(ChannelHandlerContext ctx, Packet in) {
+    private static void writeClanList(ChannelHandlerContext ctx, List<ClanDirectory.Entry> clans, int startCommand,
+            int dataCommand, int endCommand) {
         AtomicReference<ByteBuf[]> payloads = new AtomicReference<>();
 
         try {
-            List<Clan> clans = DbManager.tx(session -> {
-                Query<Clan> query = session.createQuery("from Clan c join fetch c.leader l join fetch l.character",
-                        Clan.class);
-                return query.list();
-            });
-
-            Packets.handleMutliElementPayload(ctx, clans.size(), 15, 48, payloads, (i, bo) -> {
-                Clan clan = clans.get(i);
-                writeClanListEntry(bo, clan);
-            });
+            int time = (int) Instant.now().getEpochSecond();
+            Packets.handleMutliElementPayload(ctx, clans.size(), 15, ClanDirectory.ENTRY_LENGTH, payloads,
+                    (i, bo) -> clans.get(i).write(bo, time));
 
-            Packets.write(ctx, ClansCmd.GET_LIST_START, 0);
-            Packets.write(ctx, ClansCmd.GET_LIST_DATA, payloads);
-            Packets.write(ctx, ClansCmd.GET_LIST_END, 0);
+            Packets.write(ctx, startCommand, 0);
+            Packets.write(ctx, dataCommand, payloads);
+            Packets.write(ctx, endCommand, 0);
         } catch (Exception e) {
-            logger.error("Exception while getting clan list.", e);
+            logger.error("Exception while writing clan list.", e);
             Util.releaseBuffers(payloads);
-            Packets.write(ctx, ClansCmd.GET_LIST_START, Error.GENERAL);
+            Packets.write(ctx, startCommand, Error.GENERAL);
         }
     }
 
-    private static void writeClanListEntry(ByteBuf bo, Clan clan) {
-        boolean isNew = false;
-        int time = (int) Instant.now().getEpochSecond();
-
-        bo.writeInt(clan.getId());
-        Util.writeString(clan.getName(), 16, bo);
-        bo.writeInt(clan.getLeader().getCharacterId());
-        Util.writeString(clan.getLeader().getCharacter().getName(), 16, bo);
-        bo.writeBoolean(isNew).writeByte(0).writeByte(0).writeByte(0).writeInt(time);
-    }
-
     public static void search(ChannelHandlerContext ctx, Packet in) {
-        AtomicReference<ByteBuf[]> payloads = new AtomicReference<>();
+        List<ClanDirectory.Entry> clans;
 
         try {
             ByteBuf bi = in.getPayload();
@@ -117,28 +87,14 @@ public class ClanPacketHandler {
             boolean caseSensitive = bi.readBoolean();
             String name = Util.readString(bi, 0x10);
 
-            String searchName = exactOnly ? name : "%" + name + "%";
-
-            List<Clan> clans = DbManager.tx(session -> {
-                Query<Clan> query = session.createQuery(
-                        "from Clan c join fetch c.leader l join fetch l.character where c.name like :name", Clan.class);
-                query.setParameter("name", searchName);
-                return query.list();
-            });
-
-            Packets.handleMutliElementPayload(ctx, clans.size(), 15, 48, payloads, (i, bo) -> {
-                Clan clan = clans.get(i);
-                writeClanListEntry(bo, clan);
-            });
-
-            Packets.write(ctx, ClansCmd.SEARCH_START, 0);
-            Packets.write(ctx, ClansCmd.SEARCH_DATA, payloads);
-            Packets.write(ctx, ClansCmd.SEARCH_END, 0);
+            clans = ClanService.searchClans(name, exactOnly);
         } catch (Exception e) {
             logger.error("Exception while searching for clan.", e);
-            Util.releaseBuffers(payloads);
             Packets.write(ctx, ClansCmd.SEARCH_START, Error.GENERAL);
+            return;
         }
+
+        writeClanList(ctx, clans, ClansCmd.SEARCH_START, ClansCmd.SEARCH_DATA, ClansCmd.SEARCH_END);
     }
 
     public static void getInformationMember(ChannelHandlerContext ctx, Packet in) {
@@ -518,8 +474,8 @@ public class ClanPacketHandler {
 
     public static void getStats(ChannelHandlerContext ctx, Packet in) {
         try {
-            ByteBuf bo1 = Util.readFile(Util.assetFile("4b71.bin"));
-            ByteBuf bo2 = Util.readFile(Util.assetFile("4b72.bin"));
+            ByteBuf bo1 = AssetStore.get("4b71.bin");
+            ByteBuf bo2 = AssetStore.get("4b72.bin");
             Packets.write(ctx, ClansCmd.GET_STATS_RESPONSE, bo1);
             Packets.write(ctx, ClansCmd.GET_STATS_RESPONSE + 1, bo2);
         } catch (Exception e) {
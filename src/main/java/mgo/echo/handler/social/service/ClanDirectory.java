@@ -0,0 +1,275 @@
+package mgo.echo.handler.social.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import mgo.echo.data.repository.DbManager;
+import mgo.echo.util.NameIndex;
+import mgo.echo.util.Util;
+
+/**
+ * In-memory directory of clans for the clan list (0x4b10) and search (0x4b90).
+ *
+ * Holds each clan's id, name, leader id and leader name, along with its
+ * encoded 48-byte list entry. Search goes through a {@link NameIndex}, so it
+ * is case insensitive and comes out ordered by id. Kept current by the
+ * ClanService create, disband and transfer paths and by character renames.
+ * Until a load succeeds, {@link #isReady()} is false and callers should go to
+ * the database instead; the service tick retries the load.
+ */
+public class ClanDirectory {
+    private static final Logger logger = LogManager.getLogger(ClanDirectory.class);
+
+    public static final int ENTRY_LENGTH = 48;
+    private static final int OFFSET_TIME = 44;
+
+    static final String ROWS_QUERY = "select c.id, c.name, ch.id, ch.name from Clan c join c.leader l "
+            + "join l.character ch";
+
+    private static final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private static final NameIndex<Entry> index = new NameIndex<>();
+    private static final Map<Integer, Integer> byLeader = new HashMap<>();
+
+    private static long version;
+    private static volatile boolean ready;
+
+    public static final class Entry {
+        private final int id;
+        private final String name;
+        private final int leaderId;
+        private final String leaderName;
+        private final byte[] encoded;
+
+        private Entry(int id, String name, int leaderId, String leaderName) {
+            this.id = id;
+            this.name = name;
+            this.leaderId = leaderId;
+            this.leaderName = leaderName;
+            this.encoded = encode(id, name, leaderId, leaderName);
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getLeaderId() {
+            return leaderId;
+        }
+
+        public String getLeaderName() {
+            return leaderName;
+        }
+
+        public void write(ByteBuf bo, int time) {
+            int start = bo.writerIndex();
+            bo.writeBytes(encoded).setInt(start + OFFSET_TIME, time);
+        }
+    }
+
+    private ClanDirectory() {
+    }
+
+    // ========================================================================
+    // Loading
+    // ========================================================================
+
+    public static void start() {
+        load();
+    }
+
+    /**
+     * Retry the load if the last one failed.
+     */
+    public static void loadIfNotReady() {
+        if (!ready) {
+            load();
+        }
+    }
+
+    private static void load() {
+        long loadVersion;
+        lock.readLock().lock();
+        try {
+            loadVersion = version;
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Object[]> rows = DbManager.tx(session -> session.createQuery(ROWS_QUERY, Object[].class).list());
+        if (rows == null) {
+            logger.error("Failed to load clan directory, clan lists will use the database.");
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (version != loadVersion) {
+                logger.warn("Clans changed while loading the directory, will retry.");
+                return;
+            }
+
+            clear();
+            for (Object[] row : rows) {
+                add(toEntry(row));
+            }
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        logger.info("Loaded {} clans into the directory.", rows.size());
+    }
+
+    /**
+     * Map {@link #ROWS_QUERY} rows, for lookups that go to the database.
+     */
+    static List<Entry> toEntries(List<Object[]> rows) {
+        List<Entry> entries = new ArrayList<>();
+        if (rows != null) {
+            for (Object[] row : rows) {
+                entries.add(toEntry(row));
+            }
+        }
+        return entries;
+    }
+
+    private static Entry toEntry(Object[] row) {
+        return new Entry((Integer) row[0], (String) row[1], (Integer) row[2], (String) row[3]);
+    }
+
+    // ========================================================================
+    // Queries
+    // ========================================================================
+
+    /**
+     * @return Whether the directory has loaded, so lookups are complete
+     */
+    public static boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * @return Every clan, ordered by id
+     */
+    public static List<Entry> getAll() {
+        lock.readLock().lock();
+        try {
+            return index.values();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return Clans whose name is {@code name}, or contains it unless
+     *         {@code exactOnly}, ordered by id
+     */
+    public static List<Entry> search(String name, boolean exactOnly) {
+        lock.readLock().lock();
+        try {
+            return index.search(name, exactOnly, Integer.MAX_VALUE);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ========================================================================
+    // Updates
+    // ========================================================================
+
+    public static void put(int clanId, String name, int leaderId, String leaderName) {
+        lock.writeLock().lock();
+        try {
+            remove(index.get(clanId));
+            add(new Entry(clanId, name, leaderId, leaderName));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public static void remove(int clanId) {
+        lock.writeLock().lock();
+        try {
+            remove(index.get(clanId));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public static void setLeader(int clanId, int leaderId, String leaderName) {
+        lock.writeLock().lock();
+        try {
+            Entry entry = index.get(clanId);
+            if (entry != null) {
+                remove(entry);
+                add(new Entry(clanId, entry.name, leaderId, leaderName));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Update the leader name shown for a character's clan, if it leads one.
+     */
+    public static void renameLeader(int charaId, String leaderName) {
+        lock.writeLock().lock();
+        try {
+            Integer clanId = byLeader.get(charaId);
+            Entry entry = clanId != null ? index.get(clanId) : null;
+            if (entry != null) {
+                remove(entry);
+                add(new Entry(entry.id, entry.name, charaId, leaderName));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void add(Entry entry) {
+        version++;
+        index.put(entry.id, entry.name, entry);
+        byLeader.put(entry.leaderId, entry.id);
+    }
+
+    private static void remove(Entry entry) {
+        if (entry == null) {
+            return;
+        }
+
+        version++;
+        index.remove(entry.id);
+        byLeader.remove(entry.leaderId, entry.id);
+    }
+
+    private static void clear() {
+        index.clear();
+        byLeader.clear();
+    }
+
+    private static byte[] encode(int id, String name, int leaderId, String leaderName) {
+        byte[] encoded = new byte[ENTRY_LENGTH];
+        ByteBuf bo = Unpooled.wrappedBuffer(encoded).writerIndex(0);
+
+        bo.writeInt(id);
+        Util.writeString(name, 16, bo);
+        bo.writeInt(leaderId);
+        Util.writeString(leaderName, 16, bo);
+        bo.writeBoolean(false).writeByte(0).writeByte(0).writeByte(0).writeInt(0);
+
+        return encoded;
+    }
+}
@@ -0,0 +1,159 @@
+package mgo.echo.handler.social.service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import mgo.echo.data.repository.DbManager;
+import mgo.echo.util.Util;
+
+/**
+ * Encoded clan emblem responses (0x4b49, 0x4b4b, 0x4b4d), keyed by clan id
+ * and WIP flag.
+ *
+ * Each entry is a read-only direct buffer holding the whole response payload
+ * (result code and emblem), and requests write retained duplicates of it.
+ * Entries are evicted least recently used once the byte budget is exceeded,
+ * and dropped by {@link #invalidate(int)} when an emblem is set or the clan is
+ * disbanded. Every invalidation bumps a version, so a load that raced with it
+ * isn't cached.
+ */
+public class ClanEmblemCache {
+    private static final Logger logger = LogManager.getLogger(ClanEmblemCache.class);
+
+    private static final int EMBLEM_LENGTH = 565;
+
+    private static final Object lock = new Object();
+    private static final LinkedHashMap<Long, ByteBuf> emblems = new LinkedHashMap<>(16, 0.75f, true);
+
+    private static long budget = 8L * 1024 * 1024;
+    private static long bytes;
+    private static long version;
+
+    private ClanEmblemCache() {
+    }
+
+    public static void configure(long budgetBytes) {
+        synchronized (lock) {
+            budget = budgetBytes;
+            evict();
+        }
+    }
+
+    public static void stop() {
+        synchronized (lock) {
+            for (ByteBuf emblem : emblems.values()) {
+                Util.releaseBuffer(emblem);
+            }
+            emblems.clear();
+            bytes = 0;
+            version++;
+        }
+    }
+
+    /**
+     * @param getWip Whether to get the WIP emblem, falling back to the current
+     *               one if there's none
+     * @return A read-only duplicate of the response payload, which the caller
+     *         owns, or null if the clan doesn't exist
+     */
+    public static ByteBuf get(int clanId, boolean getWip) {
+        long key = key(clanId, getWip);
+
+        long loadVersion;
+        synchronized (lock) {
+            ByteBuf emblem = emblems.get(key);
+            if (emblem != null) {
+                return emblem.retainedDuplicate();
+            }
+            loadVersion = version;
+        }
+
+        ByteBuf emblem = load(clanId, getWip);
+        if (emblem == null) {
+            return null;
+        }
+
+        synchronized (lock) {
+            ByteBuf duplicate = emblem.retainedDuplicate();
+            if (loadVersion == version && emblem.capacity() <= budget) {
+                remove(key);
+                emblems.put(key, emblem);
+                bytes += emblem.capacity();
+                evict();
+            } else {
+                emblem.release();
+            }
+            return duplicate;
+        }
+    }
+
+    /**
+     * Drop both of a clan's emblems.
+     */
+    public static void invalidate(int clanId) {
+        synchronized (lock) {
+            version++;
+            remove(key(clanId, false));
+            remove(key(clanId, true));
+        }
+    }
+
+    private static ByteBuf load(int clanId, boolean getWip) {
+        Object[] row = DbManager.tx(session -> session
+                .createQuery("select c.emblem, c.emblemWip from Clan c where c.id = :clan", Object[].class)
+                .setParameter("clan", clanId)
+                .uniqueResult());
+        if (row == null) {
+            return null;
+        }
+
+        byte[] emblem = (byte[]) row[0];
+        if (getWip && row[1] != null) {
+            emblem = (byte[]) row[1];
+        }
+
+        int length = emblem != null ? emblem.length : EMBLEM_LENGTH;
+        ByteBuf bo = Unpooled.directBuffer(4 + length);
+        bo.writeInt(0);
+        if (emblem != null) {
+            bo.writeBytes(emblem);
+        } else {
+            bo.writeZero(EMBLEM_LENGTH);
+        }
+        return bo.asReadOnly();
+    }
+
+    private static void remove(long key) {
+        ByteBuf emblem = emblems.remove(key);
+        if (emblem != null) {
+            bytes -= emblem.capacity();
+            emblem.release();
+        }
+    }
+
+    private static void evict() {
+        Iterator<Map.Entry<Long, ByteBuf>> it = emblems.entrySet().iterator();
+        while (bytes > budget && it.hasNext()) {
+            ByteBuf emblem = it.next().getValue();
+            it.remove();
+            bytes -= emblem.capacity();
+            emblem.release();
+        }
+    }
+
+    private static long key(int clanId, boolean wip) {
+        return ((long) clanId << 1) | (wip ? 1 : 0);
+    }
+
+    public static void logStats() {
+        synchronized (lock) {
+            logger.info("Clan emblem cache: {} emblems, {} of {} bytes.", emblems.size(), bytes, budget);
+        }
+    }
+}
@@ -54,23 +54,27 @@ public class ClanService {
         return DbManager.tx(session -> session.get(Clan.class, clanId));
     }
 
-    public static List<Clan> getAllClans() {
-        return DbManager.tx(session -> {
-            Query<Clan> query = session.createQuery(
-                    "from Clan c join fetch c.leader l join fetch l.character", Clan.class);
-            return query.list();
-        });
+    public static List<ClanDirectory.Entry> getClanList() {
+        if (ClanDirectory.isReady()) {
+            return ClanDirectory.getAll();
+        }
+
+        return ClanDirectory.toEntries(DbManager.tx(session -> session
+                .createQuery(ClanDirectory.ROWS_QUERY + " order by c.id", Object[].class)
+                .list()));
     }
 
-    public static List<Clan> searchClans(String name, boolean exactOnly) {
+    public static List<ClanDirectory.Entry> searchClans(String name, boolean exactOnly) {
+        if (ClanDirectory.isReady()) {
+            return ClanDirectory.search(name, exactOnly);
+        }
+
         String searchName = exactOnly ? name : "%" + name + "%";
 
-        return DbManager.tx(session -> {
-            Query<Clan> query = session.createQuery(
-                    "from Clan c join fetch c.leader l join fetch l.character where c.name like :name", Clan.class);
-            query.setParameter("name", searchName);
-            return query.list();
-        });
+        return ClanDirectory.toEntries(DbManager.tx(session -> session
+                .createQuery(ClanDirectory.ROWS_QUERY + " where c.name like :name order by c.id", Object[].class)
+                .setParameter("name", searchName)
+                .list()));
     }
 
     public static Clan getClanForInformation(int clanId) {
@@ -143,10 +147,13 @@ public class ClanService {
         newMember.setClan(clan);
         clan.setLeader(newMember);
 
-        DbManager.txVoid(session -> {
+        boolean saved = DbManager.txVoid(session -> {
             session.save(clan);
             session.save(newMember);
         });
+        if (saved) {
+            ClanDirectory.put(clan.getId(), name, character.getId(), character.getName());
+        }
 
         List<ClanMember> clanMembers = new ArrayList<>();
         clanMembers.add(newMember);
@@ -205,14 +212,16 @@ public class ClanService {
 
         int clanId = clanMember.getClanId();
 
-        DbManager.txVoid(session -> {
+        if (DbManager.txVoid(session -> {
             Clan clan = session.get(Clan.class, clanId);
             if (isWip) {
                 clan.setEmblemWip(emblem);
             } else {
                 clan.setEmblem(emblem);
             }
-        });
+        })) {
+            ClanEmblemCache.invalidate(clanId);
+        }
 
         return ClanResult.success();
     }
@@ -379,7 +388,10 @@ public class ClanService {
             return ClanResult.error(Error.CLAN_NOTALEADER);
         }
 
-        DbManager.txVoid(session -> session.delete(clan));
+        if (DbManager.txVoid(session -> session.delete(clan))) {
+            ClanDirectory.remove(clan.getId());
+            ClanEmblemCache.invalidate(clan.getId());
+        }
 
         character.getClanApplication().clear();
 
@@ -415,10 +427,13 @@ public class ClanService {
             return ClanResult.error(Error.CLAN_NOTALEADER);
         }
 
-        DbManager.txVoid(session -> {
+        boolean updated = DbManager.txVoid(session -> {
             clan.setLeader(targetClanMember);
             session.update(clan);
         });
+        if (updated) {
+            ClanDirectory.setLeader(clan.getId(), targetCharaId, targetClanMember.getCharacter().getName());
+        }
 
         return ClanResult.success();
     }
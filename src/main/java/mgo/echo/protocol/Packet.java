@@ -1,22 +1,10 @@
 package mgo.echo.protocol;
 
-import java.security.InvalidKeyException;
-import java.security.NoSuchAlgorithmException;
-import java.util.Arrays;
-
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
-
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
-
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.PooledByteBufAllocator;
 import mgo.echo.util.Util;
 
 public class Packet {
-    private static final Logger logger = LogManager.getLogger(Packet.class);
-
     private static final int ERROR_MASK = 0xC0FFEE << 8;
 
     public static final int OFFSET_COMMAND = 0x0;
@@ -29,8 +17,6 @@ public class Packet {
 
     public static final int MAX_PACKET_LENGTH = MAX_PAYLOAD_LENGTH + 1 + OFFSET_PAYLOAD;
 
-    private static final byte[] CHECKSUM_BLANK = new byte[16];
-
     private ByteBuf header;
     private ByteBuf payload;
 
@@ -131,37 +117,6 @@ public class Packet {
         this.payload = payload;
     }
 
-    private byte[] getChecksum() {
-        byte[] result = new byte[16];
-        try {
-            header.getBytes(OFFSET_CHECKSUM, result, 0, result.length);
-        } catch (IndexOutOfBoundsException e) {
-            //
-        }
-        return result;
-    }
-
-    private byte[] calculateChecksum() {
-        byte[] result = CHECKSUM_BLANK;
-        try {
-            int payloadLength = getPayloadLength();
-            byte[] bytes = new byte[8 + payloadLength];
-            header.getBytes(0, bytes, 0, 8);
-            if (payload != null) {
-                payload.getBytes(0, bytes, 8, payloadLength);
-            }
-
-            SecretKeySpec keySpec = new SecretKeySpec(Util.KEY_HMAC, "HmacMD5");
-            Mac mac = Mac.getInstance("HmacMD5");
-            mac.init(keySpec);
-
-            result = mac.doFinal(bytes);
-        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
-            logger.error("Failed to calculte checksum.", e);
-        }
-        return result;
-    }
-
     public void prepare() {
         if (payload == null) {
             setPayloadLength(0);
@@ -169,9 +124,8 @@ public class Packet {
             setPayloadLength(payload.capacity());
         }
 
-        byte[] checksum = calculateChecksum();
         try {
-            header.setBytes(OFFSET_CHECKSUM, checksum, 0, checksum.length);
+            PacketChecksum.sign(header, payload, getPayloadLength());
         } catch (IndexOutOfBoundsException e) {
             //
         }
@@ -187,17 +141,11 @@ public class Packet {
             return false;
         }
 
-        byte[] actual = getChecksum();
-        if (Arrays.equals(actual, CHECKSUM_BLANK)) {
-            return false;
-        }
-
-        byte[] calculated = calculateChecksum();
-        if (Arrays.equals(calculated, CHECKSUM_BLANK)) {
+        try {
+            return PacketChecksum.verify(header, payload, getPayloadLength());
+        } catch (IndexOutOfBoundsException e) {
             return false;
         }
-
-        return Arrays.equals(actual, calculated);
     }
 
     public void release() {
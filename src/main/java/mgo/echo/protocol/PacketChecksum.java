@@ -0,0 +1,142 @@
+package mgo.echo.protocol;
+
+import java.security.GeneralSecurityException;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.util.concurrent.FastThreadLocal;
+import mgo.echo.util.Util;
+
+/**
+ * HMAC-MD5 checksum engine for packet headers.
+ *
+ * Each thread (in practice each event loop or executor thread) keeps its own
+ * pre-keyed {@link Mac} and scratch array, so signing and verifying a packet
+ * does no provider lookup and no per-packet allocation.
+ */
+public final class PacketChecksum {
+    private static final Logger logger = LogManager.getLogger(PacketChecksum.class);
+
+    public static final int LENGTH = 16;
+
+    private static final String ALGORITHM = "HmacMD5";
+
+    private static final int SIGNED_HEADER_LENGTH = 8;
+
+    private static final FastThreadLocal<PacketChecksum> ENGINES = new FastThreadLocal<PacketChecksum>() {
+        @Override
+        protected PacketChecksum initialValue() {
+            return new PacketChecksum();
+        }
+    };
+
+    private final Mac mac;
+    private final byte[] scratch = new byte[LENGTH];
+
+    private PacketChecksum() {
+        Mac instance = null;
+        try {
+            instance = Mac.getInstance(ALGORITHM);
+            instance.init(new SecretKeySpec(Util.KEY_HMAC, ALGORITHM));
+        } catch (GeneralSecurityException e) {
+            logger.error("Failed to initialize checksum engine.", e);
+            instance = null;
+        }
+        this.mac = instance;
+    }
+
+    /**
+     * Calculate the checksum and store it in the header.
+     * A blank checksum is written if the engine is unavailable.
+     */
+    public static boolean sign(ByteBuf header, ByteBuf payload, int payloadLength) {
+        PacketChecksum engine = ENGINES.get();
+        byte[] checksum = engine.scratch;
+
+        boolean calculated = engine.calculate(header, payload, payloadLength);
+        if (!calculated) {
+            header.setZero(Packet.OFFSET_CHECKSUM, LENGTH);
+            return false;
+        }
+
+        header.setBytes(Packet.OFFSET_CHECKSUM, checksum, 0, LENGTH);
+        return true;
+    }
+
+    /**
+     * Check the checksum stored in the header against the packet contents.
+     * Blank checksums never validate.
+     */
+    public static boolean verify(ByteBuf header, ByteBuf payload, int payloadLength) {
+        if (isBlank(header)) {
+            return false;
+        }
+
+        PacketChecksum engine = ENGINES.get();
+        if (!engine.calculate(header, payload, payloadLength)) {
+            return false;
+        }
+
+        byte[] checksum = engine.scratch;
+        for (int i = 0; i < LENGTH; i++) {
+            if (header.getByte(Packet.OFFSET_CHECKSUM + i) != checksum[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isBlank(ByteBuf header) {
+        for (int i = 0; i < LENGTH; i += 8) {
+            if (header.getLong(Packet.OFFSET_CHECKSUM + i) != 0L) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean calculate(ByteBuf header, ByteBuf payload, int payloadLength) {
+        if (mac == null) {
+            return false;
+        }
+
+        try {
+            update(header, SIGNED_HEADER_LENGTH);
+            if (payloadLength > 0) {
+                if (payload != null) {
+                    update(payload, payloadLength);
+                } else {
+                    for (int i = 0; i < payloadLength; i++) {
+                        mac.update((byte) 0);
+                    }
+                }
+            }
+
+            mac.doFinal(scratch, 0);
+            return true;
+        } catch (GeneralSecurityException | IndexOutOfBoundsException e) {
+            logger.error("Failed to calculate checksum.", e);
+            mac.reset();
+            return false;
+        }
+    }
+
+    private void update(ByteBuf buffer, int length) {
+        if (buffer.hasArray()) {
+            mac.update(buffer.array(), buffer.arrayOffset(), length);
+            return;
+        }
+
+        if (buffer.nioBufferCount() == 1) {
+            mac.update(buffer.internalNioBuffer(0, length));
+            return;
+        }
+
+        mac.update(buffer.nioBuffer(0, length));
+    }
+}
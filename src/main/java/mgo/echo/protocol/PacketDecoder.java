@@ -4,7 +4,6 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.ByteBufUtil;
 import io.netty.channel.ChannelHandler.Sharable;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
@@ -113,14 +112,7 @@ public class PacketDecoder extends ChannelInboundHandlerAdapter {
                     }
                 }
 
-                if (lengthPayload > 0) {
-                    logger.debug("{} - In - Command {} - {} bytes", Util.getUserInfo(ctx),
-                            String.format("%04x", command),
-                            lengthPayload);
-                    logger.debug(() -> ByteBufUtil.hexDump(packet.getPayload()));
-                } else {
-                    logger.debug("{} - In - Command {}", Util.getUserInfo(ctx), String.format("%04x", command));
-                }
+                PacketLog.in(ctx, command, packet.getPayload(), lengthPayload);
 
                 if (buffer.readableBytes() > 0) {
                     Util.moveReadableToStart(buffer);
@@ -4,7 +4,6 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.ByteBufUtil;
 import io.netty.channel.ChannelHandler.Sharable;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelOutboundHandlerAdapter;
@@ -29,17 +28,8 @@ public class PacketEncoder extends ChannelOutboundHandlerAdapter {
         try {
             packet = (Packet) msg;
 
-            final int command = packet.getCommand();
             final int lenP = (packet.getPayload() != null) ? packet.getPayload().capacity() : 0;
-            final Packet fPacket = packet;
-
-            if (lenP > 0) {
-                logger.debug("{} - Out - Command {} - {} bytes", Util.getUserInfo(ctx), String.format("%04x", command),
-                        lenP);
-                logger.debug(() -> ByteBufUtil.hexDump(fPacket.getPayload()));
-            } else {
-                logger.debug("{} - Out - Command {}", Util.getUserInfo(ctx), String.format("%04x", command));
-            }
+            PacketLog.out(ctx, packet.getCommand(), packet.getPayload(), lenP);
 
             int pad = 0;
             if (Packets.usesCrypto(CRYPTED_IDS, packet)) {
@@ -0,0 +1,101 @@
+package mgo.echo.protocol;
+
+import java.util.List;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.ByteToMessageDecoder;
+import mgo.echo.security.CryptoProvider;
+import mgo.echo.util.Packets;
+import mgo.echo.util.Util;
+
+/**
+ * Stateful, zero-copy replacement for {@link PacketDecoder}.
+ *
+ * Frames are cut from the cumulation as retained slices and unmasked in place,
+ * so the header and payload handed to the pipeline are views over the bytes
+ * that came off the socket. One instance per channel.
+ */
+public class PacketFrameDecoder extends ByteToMessageDecoder {
+    private static final int[] CRYPTED_IDS = { 0x3003, 0x4310, 0x4320, 0x43c0, 0x4700, 0x4990 };
+
+    private static final Logger logger = LogManager.getLogger(PacketFrameDecoder.class);
+
+    private int sequence = 1;
+
+    public PacketFrameDecoder() {
+        setCumulator(MERGE_CUMULATOR);
+    }
+
+    @Override
+    protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) {
+        while (in.readableBytes() >= Packet.OFFSET_PAYLOAD) {
+            int readerIndex = in.readerIndex();
+            final int command = (in.getShort(readerIndex) ^ (Util.KEY_XOR >> 16)) & 0xffff;
+            int lenPayload = (in.getShort(readerIndex + 2) ^ Util.KEY_XOR) & 0xffff;
+            int pad = 0;
+            if (Packets.usesCrypto(CRYPTED_IDS, command) && lenPayload % 8 != 0) {
+                pad = 8 - (lenPayload % 8);
+            }
+
+            final int lengthPayload = lenPayload + pad;
+            if (Packet.MAX_PAYLOAD_LENGTH < lengthPayload) {
+                logger.warn("Payload isn't a valid length: {}", lengthPayload);
+                in.skipBytes(in.readableBytes());
+                ctx.close();
+                return;
+            }
+
+            int bytesToRead = Packet.OFFSET_PAYLOAD + lengthPayload;
+            if (in.readableBytes() < bytesToRead) {
+                return;
+            }
+
+            ByteBuf frame = in.readRetainedSlice(bytesToRead);
+            try {
+                Packet packet = decodeFrame(ctx, frame, command, lengthPayload, pad);
+                if (packet != null) {
+                    out.add(packet);
+                }
+            } finally {
+                frame.release();
+            }
+        }
+    }
+
+    private Packet decodeFrame(ChannelHandlerContext ctx, ByteBuf frame, int command, int lengthPayload, int pad) {
+        Util.xor(frame, frame.readableBytes(), Util.KEY_XOR);
+
+        Packet packet = new Packet(frame.retainedSlice(Packet.OFFSET_COMMAND, Packet.OFFSET_PAYLOAD),
+                frame.retainedSlice(Packet.OFFSET_PAYLOAD, lengthPayload));
+
+        if (!packet.validate()) {
+            logger.warn("Packet is invalid: {}", command);
+            packet.release();
+            return null;
+        }
+
+        if (packet.getSequence() != sequence) {
+            logger.warn("Packet is out of sequence: {} vs {}", packet.getSequence(), sequence);
+            packet.release();
+            return null;
+        }
+
+        sequence++;
+
+        if (Packets.usesCrypto(CRYPTED_IDS, command)) {
+            ByteBuf payload = packet.getPayload();
+            CryptoProvider.instancePacket().decrypt(payload);
+            if (pad != 0) {
+                payload.writerIndex(payload.writerIndex() - pad);
+            }
+        }
+
+        PacketLog.in(ctx, command, packet.getPayload(), lengthPayload);
+
+        return packet;
+    }
+}
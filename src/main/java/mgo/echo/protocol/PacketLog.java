@@ -0,0 +1,126 @@
+package mgo.echo.protocol;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.core.config.Configurator;
+import org.apache.logging.log4j.util.Unbox;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.util.AttributeKey;
+import mgo.echo.util.Util;
+
+/**
+ * Per-packet logging for the decoders and the encoder.
+ *
+ * Packet lines go to this class's logger: one line per packet at DEBUG, plus a
+ * hex dump of the payload at TRACE. The logger is off (INFO) in log4j2.xml and
+ * can be switched at runtime by editing it or through {@link #setLevel(Level)}.
+ * While it's off, a packet costs a level check and nothing else.
+ *
+ * While it's on, each command is sampled: one in every {@link #setSampleRate(int)
+ * n} packets is logged. Commands and channels marked with {@code trace} are
+ * always logged. User info and command ids are only formatted for lines that
+ * are written, and ids are formatted once per command.
+ */
+public class PacketLog {
+    private static final Logger logger = LogManager.getLogger(PacketLog.class);
+
+    private static final int COMMANDS = 0x10000;
+
+    private static final AttributeKey<Boolean> TRACED = AttributeKey.valueOf("packetLogTraced");
+
+    private static final AtomicIntegerArray counters = new AtomicIntegerArray(COMMANDS);
+    private static final String[] hexCommands = new String[COMMANDS];
+    private static volatile boolean[] tracedCommands = new boolean[COMMANDS];
+    private static volatile int sampleRate = 1;
+
+    private PacketLog() {
+    }
+
+    // ========================================================================
+    // Settings
+    // ========================================================================
+
+    public static void setLevel(Level level) {
+        Configurator.setLevel(logger.getName(), level);
+        logger.info("Packet logging set to {}.", level);
+    }
+
+    /**
+     * Log one in every {@code rate} packets of each command.
+     */
+    public static void setSampleRate(int rate) {
+        sampleRate = Math.max(1, rate);
+    }
+
+    /**
+     * Always log a command, regardless of sampling.
+     */
+    public static synchronized void trace(int command, boolean traced) {
+        boolean[] commands = tracedCommands.clone();
+        commands[command & 0xffff] = traced;
+        tracedCommands = commands;
+    }
+
+    /**
+     * Always log a channel's packets, regardless of sampling.
+     */
+    public static void trace(Channel channel, boolean traced) {
+        channel.attr(TRACED).set(traced ? Boolean.TRUE : null);
+    }
+
+    // ========================================================================
+    // Logging
+    // ========================================================================
+
+    public static void in(ChannelHandlerContext ctx, int command, ByteBuf payload, int length) {
+        command &= 0xffff;
+        if (logger.isDebugEnabled() && isSampled(ctx.channel(), command)) {
+            log("In", ctx, command, payload, length);
+        }
+    }
+
+    public static void out(ChannelHandlerContext ctx, int command, ByteBuf payload, int length) {
+        command &= 0xffff;
+        if (logger.isDebugEnabled() && isSampled(ctx.channel(), command)) {
+            log("Out", ctx, command, payload, length);
+        }
+    }
+
+    private static boolean isSampled(Channel channel, int command) {
+        int rate = sampleRate;
+        if (rate == 1 || tracedCommands[command] || channel.attr(TRACED).get() != null) {
+            return true;
+        }
+
+        return (counters.getAndIncrement(command) & Integer.MAX_VALUE) % rate == 0;
+    }
+
+    private static void log(String direction, ChannelHandlerContext ctx, int command, ByteBuf payload,
+            int length) {
+        if (length > 0) {
+            logger.debug("{} - {} - Command {} - {} bytes", Util.getUserInfo(ctx), direction, hex(command),
+                    Unbox.box(length));
+            if (logger.isTraceEnabled()) {
+                logger.trace(ByteBufUtil.hexDump(payload));
+            }
+        } else {
+            logger.debug("{} - {} - Command {}", Util.getUserInfo(ctx), direction, hex(command));
+        }
+    }
+
+    private static String hex(int command) {
+        String hex = hexCommands[command];
+        if (hex == null) {
+            hex = String.format("%04x", command);
+            hexCommands[command] = hex;
+        }
+        return hex;
+    }
+}
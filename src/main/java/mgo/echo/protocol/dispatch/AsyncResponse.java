@@ -0,0 +1,18 @@
+package mgo.echo.protocol.dispatch;
+
+import io.netty.channel.ChannelHandlerContext;
+
+/**
+ * Writes the response for a command whose work finished asynchronously.
+ * 
+ * Runs on the channel's executor with the Netty context, not the
+ * CommandContext, which is reused once the handler returns.
+ */
+@FunctionalInterface
+public interface AsyncResponse<T> {
+    /**
+     * @param result the result, or null if the work failed
+     * @param error  the failure, or null if the work succeeded
+     */
+    void complete(ChannelHandlerContext ctx, T result, Throwable error) throws Exception;
+}
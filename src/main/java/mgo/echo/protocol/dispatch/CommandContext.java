@@ -1,5 +1,11 @@
 package mgo.echo.protocol.dispatch;
 
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandlerContext;
@@ -16,16 +22,43 @@ import mgo.echo.util.Packets;
  * Provides access to channel, packet, lobby, and user data.
  */
 public final class CommandContext {
-    private final ChannelHandlerContext nettyCtx;
-    private final Packet packet;
-    private final Lobby lobby;
+    private static final Logger logger = LogManager.getLogger(CommandContext.class);
+
+    private ChannelHandlerContext nettyCtx;
+    private Packet packet;
+    private Lobby lobby;
 
     public CommandContext(ChannelHandlerContext nettyCtx, Packet packet, Lobby lobby) {
+        bind(nettyCtx, packet, lobby);
+    }
+
+    CommandContext() {
+    }
+
+    // ========================================================================
+    // Pooling
+    // ========================================================================
+
+    /**
+     * Point a pooled context at the next packet. Handlers must not keep the
+     * context past their return.
+     */
+    void bind(ChannelHandlerContext nettyCtx, Packet packet, Lobby lobby) {
         this.nettyCtx = nettyCtx;
         this.packet = packet;
         this.lobby = lobby;
     }
 
+    void clear() {
+        this.nettyCtx = null;
+        this.packet = null;
+        this.lobby = null;
+    }
+
+    boolean isBound() {
+        return packet != null;
+    }
+
     // ========================================================================
     // Netty Access
     // ========================================================================
@@ -114,4 +147,31 @@ public final class CommandContext {
     public void flush() {
         nettyCtx.flush();
     }
+
+    // ========================================================================
+    // Async Responses
+    // ========================================================================
+
+    /**
+     * Write a response once {@code stage} completes, on this channel's executor.
+     * The handler should return true so nothing else is written for the packet.
+     */
+    public <T> void respondAsync(CompletionStage<T> stage, AsyncResponse<T> response) {
+        respondAsync(nettyCtx, stage, response);
+    }
+
+    public static <T> void respondAsync(ChannelHandlerContext ctx, CompletionStage<T> stage,
+            AsyncResponse<T> response) {
+        stage.whenCompleteAsync((result, error) -> {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause()
+                    : error;
+            try {
+                response.complete(ctx, result, cause);
+            } catch (Exception e) {
+                logger.error("Exception while writing async response.", e);
+            } finally {
+                ctx.flush();
+            }
+        }, ctx.executor());
+    }
 }
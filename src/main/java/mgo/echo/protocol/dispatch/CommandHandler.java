@@ -0,0 +1,15 @@
+package mgo.echo.protocol.dispatch;
+
+/**
+ * Compiled form of a {@link Command} method.
+ * 
+ * The registry binds each annotated method to its controller at startup, so
+ * dispatch is a direct interface call rather than a reflective one.
+ */
+@FunctionalInterface
+public interface CommandHandler {
+    /**
+     * @return true if a response was written
+     */
+    boolean handle(CommandContext ctx) throws Exception;
+}
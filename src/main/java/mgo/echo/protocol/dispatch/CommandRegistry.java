@@ -1,10 +1,13 @@
 package mgo.echo.protocol.dispatch;
 
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
-import java.util.Collections;
-import java.util.HashMap;
+import java.lang.reflect.Modifier;
 import java.util.List;
-import java.util.Map;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -12,28 +15,36 @@ import org.apache.logging.log4j.Logger;
 /**
  * Registry that discovers and stores command handlers from controllers.
  * 
- * Scans controllers for methods annotated with @Command and builds
- * a lookup table for fast dispatch.
+ * Scans controllers for methods annotated with @Command, compiles each one
+ * into a {@link CommandHandler} with {@link LambdaMetafactory} and stores it in
+ * a flat table indexed by command id.
  */
 public final class CommandRegistry {
     private static final Logger logger = LogManager.getLogger(CommandRegistry.class);
 
-    private final Map<Integer, RegisteredHandler> handlers;
+    private static final int TABLE_SIZE = 0x10000;
 
-    private CommandRegistry(Map<Integer, RegisteredHandler> handlers) {
-        this.handlers = Collections.unmodifiableMap(handlers);
+    private final RegisteredHandler[] handlers;
+    private final int size;
+
+    private CommandRegistry(RegisteredHandler[] handlers, int size) {
+        this.handlers = handlers;
+        this.size = size;
     }
 
     public RegisteredHandler get(int command) {
-        return handlers.get(command);
+        if ((command & ~0xffff) != 0) {
+            return null;
+        }
+        return handlers[command];
     }
 
     public boolean has(int command) {
-        return handlers.containsKey(command);
+        return get(command) != null;
     }
 
     public int size() {
-        return handlers.size();
+        return size;
     }
 
     public static Builder builder() {
@@ -41,7 +52,8 @@ public final class CommandRegistry {
     }
 
     public static final class Builder {
-        private final Map<Integer, RegisteredHandler> handlers = new HashMap<>();
+        private final RegisteredHandler[] handlers = new RegisteredHandler[TABLE_SIZE];
+        private int size;
 
         private Builder() {
         }
@@ -61,16 +73,18 @@ public final class CommandRegistry {
                 int commandId = annotation.value();
                 validateMethod(method, commandId);
 
-                if (handlers.containsKey(commandId)) {
-                    RegisteredHandler existing = handlers.get(commandId);
+                RegisteredHandler existing = handlers[commandId];
+                if (existing != null) {
                     logger.warn("Duplicate handler for command 0x{}: {} overwrites {}",
                             Integer.toHexString(commandId),
                             formatMethod(controller, method),
                             formatMethod(existing.controller(), existing.method()));
                 }
 
-                method.setAccessible(true);
-                handlers.put(commandId, new RegisteredHandler(controller, method));
+                if (existing == null) {
+                    size++;
+                }
+                handlers[commandId] = new RegisteredHandler(controller, method, compile(controller, method));
                 logger.debug("Registered command 0x{} -> {}",
                         Integer.toHexString(commandId),
                         formatMethod(controller, method));
@@ -91,11 +105,27 @@ public final class CommandRegistry {
         }
 
         public CommandRegistry build() {
-            logger.info("Built command registry with {} handlers", handlers.size());
-            return new CommandRegistry(handlers);
+            logger.info("Built command registry with {} handlers", size);
+            return new CommandRegistry(handlers.clone(), size);
         }
 
         private void validateMethod(Method method, int commandId) {
+            if ((commandId & ~0xffff) != 0) {
+                throw new IllegalArgumentException(
+                        String.format("@Command method %s.%s has an invalid command id 0x%x",
+                                method.getDeclaringClass().getSimpleName(),
+                                method.getName(),
+                                commandId));
+            }
+
+            if (!Modifier.isPublic(method.getModifiers())
+                    || !Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+                throw new IllegalArgumentException(
+                        String.format("@Command method %s.%s must be public in a public class",
+                                method.getDeclaringClass().getSimpleName(),
+                                method.getName()));
+            }
+
             Class<?>[] params = method.getParameterTypes();
             if (params.length != 1 || !CommandContext.class.isAssignableFrom(params[0])) {
                 throw new IllegalArgumentException(
@@ -116,15 +146,80 @@ public final class CommandRegistry {
         private String formatMethod(Controller controller, Method method) {
             return controller.getClass().getSimpleName() + "." + method.getName() + "()";
         }
+
+        /**
+         * Bind the method to its controller as a lambda, the same way javac
+         * compiles {@code controller::method}. void and Boolean handlers are
+         * adapted to the boolean contract.
+         */
+        private CommandHandler compile(Controller controller, Method method) {
+            Class<?> returnType = method.getReturnType();
+            Class<?> functionalType = returnType == boolean.class ? CommandHandler.class
+                    : returnType == void.class ? VoidHandler.class
+                            : BoxedHandler.class;
+
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.lookup();
+                MethodHandle target = lookup.unreflect(method);
+                MethodType samType = MethodType.methodType(returnType, CommandContext.class);
+
+                if (Modifier.isStatic(method.getModifiers())) {
+                    CallSite site = LambdaMetafactory.metafactory(lookup, "handle",
+                            MethodType.methodType(functionalType), samType, target, samType);
+                    return adapt(site.getTarget().invoke());
+                }
+
+                CallSite site = LambdaMetafactory.metafactory(lookup, "handle",
+                        MethodType.methodType(functionalType, method.getDeclaringClass()),
+                        samType, target, samType);
+                return adapt(site.getTarget().invoke(controller));
+            } catch (Throwable e) {
+                throw new IllegalArgumentException(
+                        String.format("Failed to compile @Command method %s.%s",
+                                method.getDeclaringClass().getSimpleName(),
+                                method.getName()),
+                        e);
+            }
+        }
+
+        private CommandHandler adapt(Object bound) {
+            if (bound instanceof CommandHandler handler) {
+                return handler;
+            }
+            if (bound instanceof VoidHandler handler) {
+                return ctx -> {
+                    handler.handle(ctx);
+                    return true;
+                };
+            }
+
+            BoxedHandler handler = (BoxedHandler) bound;
+            return ctx -> {
+                Boolean result = handler.handle(ctx);
+                return result == null || result;
+            };
+        }
+    }
+
+    @FunctionalInterface
+    private interface VoidHandler {
+        void handle(CommandContext ctx) throws Exception;
+    }
+
+    @FunctionalInterface
+    private interface BoxedHandler {
+        Boolean handle(CommandContext ctx) throws Exception;
     }
 
     public static final class RegisteredHandler {
         private final Controller controller;
         private final Method method;
+        private final CommandHandler handler;
 
-        public RegisteredHandler(Controller controller, Method method) {
+        public RegisteredHandler(Controller controller, Method method, CommandHandler handler) {
             this.controller = controller;
             this.method = method;
+            this.handler = handler;
         }
 
         public Controller controller() {
@@ -135,12 +230,12 @@ public final class CommandRegistry {
             return method;
         }
 
+        public CommandHandler handler() {
+            return handler;
+        }
+
         public boolean invoke(CommandContext ctx) throws Exception {
-            Object result = method.invoke(controller, ctx);
-            if (result == null) {
-                return true;
-            }
-            return (Boolean) result;
+            return handler.handle(ctx);
         }
     }
 }
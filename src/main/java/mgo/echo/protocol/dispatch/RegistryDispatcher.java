@@ -4,6 +4,8 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.util.Attribute;
+import io.netty.util.AttributeKey;
 import mgo.echo.data.entity.Lobby;
 import mgo.echo.protocol.Packet;
 import mgo.echo.protocol.dispatch.CommandRegistry.RegisteredHandler;
@@ -12,10 +14,13 @@ import mgo.echo.protocol.dispatch.CommandRegistry.RegisteredHandler;
  * Command dispatcher using the annotation-based registry.
  * 
  * Dispatches incoming packets to registered @Command handlers.
+ * Each channel reuses one CommandContext, rebound for every packet.
  */
 public final class RegistryDispatcher {
     private static final Logger logger = LogManager.getLogger(RegistryDispatcher.class);
 
+    private static final AttributeKey<CommandContext> COMMAND_CONTEXT = AttributeKey.valueOf("commandContext");
+
     private final CommandRegistry registry;
 
     public RegistryDispatcher(CommandRegistry registry) {
@@ -31,14 +36,39 @@ public final class RegistryDispatcher {
             return false;
         }
 
-        CommandContext cmdCtx = new CommandContext(ctx, in, lobby);
+        CommandContext cmdCtx = acquireContext(ctx);
+        cmdCtx.bind(ctx, in, lobby);
 
         try {
             return handler.invoke(cmdCtx);
         } catch (Exception e) {
             logger.error("Exception handling command 0x{}", Integer.toHexString(commandKey), e);
             return false;
+        } finally {
+            cmdCtx.clear();
+        }
+    }
+
+    /**
+     * The channel's pooled context, or a fresh one if it is already in use by a
+     * nested dispatch on the same channel.
+     */
+    private CommandContext acquireContext(ChannelHandlerContext ctx) {
+        Attribute<CommandContext> attribute = ctx.channel().attr(COMMAND_CONTEXT);
+        CommandContext cmdCtx = attribute.get();
+        if (cmdCtx == null) {
+            cmdCtx = new CommandContext();
+            CommandContext existing = attribute.setIfAbsent(cmdCtx);
+            if (existing != null) {
+                cmdCtx = existing;
+            }
         }
+
+        if (cmdCtx.isBound()) {
+            return new CommandContext();
+        }
+
+        return cmdCtx;
     }
 
     public boolean hasHandler(int command) {
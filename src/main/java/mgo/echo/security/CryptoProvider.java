@@ -1,127 +1,128 @@
 package mgo.echo.security;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.PooledByteBufAllocator;
-import io.netty.buffer.Unpooled;
 
+/**
+ * Blowfish-style block cipher used for session ids and encrypted commands.
+ *
+ * The key material in {@link CryptoConstants} is unpacked once into a P-array
+ * of 18 round keys followed by four 256-entry S-boxes, all big-endian. Blocks
+ * are 8 bytes; any trailing partial block is left untouched.
+ */
 public class CryptoProvider {
-    private static CryptoProvider instanceAuth = null, instancePacket = null;
+    private static final int ROUNDS = 16;
+    private static final int BLOCK_SIZE = 8;
+    private static final int SBOX_OFFSET = (ROUNDS + 2) * 4;
+
+    private static final CryptoProvider instanceAuth = new CryptoProvider(CryptoConstants.CRYPTO_AUTH);
+    private static final CryptoProvider instancePacket = new CryptoProvider(CryptoConstants.CRYPTO_PACKET);
 
-    private final ByteBuf ck;
+    private final int[] p = new int[ROUNDS + 2];
+    private final int[] s0 = new int[256];
+    private final int[] s1 = new int[256];
+    private final int[] s2 = new int[256];
+    private final int[] s3 = new int[256];
 
     private CryptoProvider(byte[] k) {
-        this.ck = Unpooled.wrappedBuffer(k);
+        ByteBuffer key = ByteBuffer.wrap(k).order(ByteOrder.BIG_ENDIAN);
+        for (int i = 0; i < p.length; i++) {
+            p[i] = key.getInt(i * 4);
+        }
+
+        int[][] sboxes = { s0, s1, s2, s3 };
+        for (int box = 0; box < sboxes.length; box++) {
+            int base = SBOX_OFFSET + box * 0x400;
+            for (int i = 0; i < 256; i++) {
+                sboxes[box][i] = key.getInt(base + i * 4);
+            }
+        }
     }
 
     public static CryptoProvider instanceAuth() {
-        if (instanceAuth == null) {
-            instanceAuth = new CryptoProvider(CryptoConstants.CRYPTO_AUTH);
-        }
         return instanceAuth;
     }
 
     public static CryptoProvider instancePacket() {
-        if (instancePacket == null) {
-            instancePacket = new CryptoProvider(CryptoConstants.CRYPTO_PACKET);
-        }
         return instancePacket;
     }
 
-    public byte[] decrypt(byte[] bytes) {
-        ByteBuf c = null, p = null;
-        byte[] result = null;
-        try {
-            c = Unpooled.wrappedBuffer(bytes);
-            p = PooledByteBufAllocator.DEFAULT.directBuffer(bytes.length);
-            decrypt(p, c);
-            result = new byte[bytes.length];
-            p.getBytes(0, result);
-        } finally {
-            if (c != null) {
-                c.release();
-            }
-            if (p != null) {
-                p.release();
-            }
-        }
-        return result;
+    private int f(int x) {
+        return ((s0[x >>> 24] + s1[(x >>> 16) & 0xff]) ^ s2[(x >>> 8) & 0xff]) + s3[x & 0xff];
     }
 
-    public void decrypt(ByteBuf b) {
-        decrypt(b, b);
+    /**
+     * Decrypts a block, returning {@code a} in the high and {@code b} in the low
+     * half of the result. Input is the big-endian pair (b, a) as read from the
+     * wire.
+     */
+    private long decryptBlock(int b, int a) {
+        b ^= p[17];
+        for (int j = 16; j > 0; j -= 2) {
+            a ^= p[j];
+            a ^= f(b);
+            b ^= p[j - 1];
+            b ^= f(a);
+        }
+        a ^= p[0];
+        return ((long) a << 32) | (b & 0xffffffffL);
     }
 
-    public void decrypt(ByteBuf p, ByteBuf c) {
-        int blocks = c.capacity() / 8;
-
-        int b = 0, a = 0;
-        int k = 0, kA = 0, kB = 0, kC = 0, kD = 0;
-        int kIndexA = 0, kIndexB = 0, kIndexC = 0, kIndexD = 0;
-
-        for (int i = 0; i < blocks; i++) {
-            a = c.getInt(i * 8 + 4);
-            b = c.getInt(i * 8);
-
-            k = ck.getInt(0x44);
-            b ^= k;
-
-            for (int j = 0; j < 8; j++) {
-                k = ck.getInt(0x40 - j * 8);
-                a ^= k;
-
-                kIndexA = (b >>> 22) & 0x3fc;
-                kIndexB = (b >>> 14) & 0x3fc;
-                kIndexC = (b >>> 6) & 0x3fc;
-                kIndexD = Integer.rotateLeft(b, 2) & 0x3fc;
-
-                kA = ck.getInt(kIndexA + 0x48);
-                kB = ck.getInt(kIndexB + 0x448);
-                kC = ck.getInt(kIndexC + 0x848);
-                kD = ck.getInt(kIndexD + 0xc48);
-
-                a ^= ((kA + kB) ^ kC) + kD;
+    private long encryptBlock(int b, int a) {
+        b ^= p[0];
+        for (int j = 1; j < 17; j += 2) {
+            a ^= p[j];
+            a ^= f(b);
+            b ^= p[j + 1];
+            b ^= f(a);
+        }
+        a ^= p[17];
+        return ((long) a << 32) | (b & 0xffffffffL);
+    }
 
-                k = ck.getInt(0x3c - j * 8);
-                b ^= k;
+    // ========================================================================
+    // byte[]
+    // ========================================================================
 
-                kIndexA = (a >>> 22) & 0x3fc;
-                kIndexB = (a >>> 14) & 0x3fc;
-                kIndexC = (a >>> 6) & 0x3fc;
-                kIndexD = Integer.rotateLeft(a, 2) & 0x3fc;
+    public byte[] decrypt(byte[] bytes) {
+        byte[] result = bytes.clone();
+        decrypt(ByteBuffer.wrap(result));
+        return result;
+    }
 
-                kA = ck.getInt(kIndexA + 0x48);
-                kB = ck.getInt(kIndexB + 0x448);
-                kC = ck.getInt(kIndexC + 0x848);
-                kD = ck.getInt(kIndexD + 0xc48);
+    public byte[] encrypt(byte[] bytes) {
+        byte[] result = bytes.clone();
+        encrypt(ByteBuffer.wrap(result));
+        return result;
+    }
 
-                b ^= ((kA + kB) ^ kC) + kD;
-            }
+    // ========================================================================
+    // ByteBuf
+    // ========================================================================
 
-            k = ck.getInt(0x0);
-            a ^= k;
+    public void decrypt(ByteBuf b) {
+        decrypt(b, b);
+    }
 
-            p.setInt(i * 8, a).setInt(i * 8 + 4, b);
+    public void decrypt(ByteBuf p, ByteBuf c) {
+        int length = c.capacity() - c.capacity() % BLOCK_SIZE;
+        for (int i = 0; i < length; i += BLOCK_SIZE) {
+            long block = decryptBlock(c.getInt(i), c.getInt(i + 4));
+            p.setLong(i, block);
         }
     }
 
-    public byte[] encrypt(byte[] bytes) {
-        ByteBuf c = null, p = null;
-        byte[] result = null;
-        try {
-            c = PooledByteBufAllocator.DEFAULT.directBuffer(bytes.length);
-            p = Unpooled.wrappedBuffer(bytes);
-            encrypt(p, c);
-            result = new byte[bytes.length];
-            c.getBytes(0, result);
-        } finally {
-            if (c != null) {
-                c.release();
-            }
-            if (p != null) {
-                p.release();
-            }
+    /**
+     * Decrypts {@code length} bytes in place starting at {@code index}.
+     */
+    public void decrypt(ByteBuf buffer, int index, int length) {
+        int end = index + length - length % BLOCK_SIZE;
+        for (int i = index; i < end; i += BLOCK_SIZE) {
+            long block = buffer.getLong(i);
+            buffer.setLong(i, decryptBlock((int) (block >>> 32), (int) block));
         }
-        return result;
     }
 
     public void encrypt(ByteBuf b) {
@@ -129,55 +130,53 @@ public class CryptoProvider {
     }
 
     public void encrypt(ByteBuf p, ByteBuf c) {
-        int blocks = p.capacity() / 8;
-
-        int b = 0, a = 0;
-        int k = 0, kA = 0, kB = 0, kC = 0, kD = 0;
-        int kIndexA = 0, kIndexB = 0, kIndexC = 0, kIndexD = 0;
-
-        for (int i = 0; i < blocks; i++) {
-            a = p.getInt(i * 8 + 4);
-            b = p.getInt(i * 8);
-
-            k = ck.getInt(0x0);
-            b ^= k;
-
-            for (int j = 7; j >= 0; j--) {
-                k = ck.getInt(0x3c - j * 8);
-                a ^= k;
-
-                kIndexA = (b >>> 22) & 0x3fc;
-                kIndexB = (b >>> 14) & 0x3fc;
-                kIndexC = (b >>> 6) & 0x3fc;
-                kIndexD = Integer.rotateLeft(b, 2) & 0x3fc;
-
-                kA = ck.getInt(kIndexA + 0x48);
-                kB = ck.getInt(kIndexB + 0x448);
-                kC = ck.getInt(kIndexC + 0x848);
-                kD = ck.getInt(kIndexD + 0xc48);
-
-                a ^= ((kA + kB) ^ kC) + kD;
-
-                k = ck.getInt(0x40 - j * 8);
-                b ^= k;
-
-                kIndexA = (a >>> 22) & 0x3fc;
-                kIndexB = (a >>> 14) & 0x3fc;
-                kIndexC = (a >>> 6) & 0x3fc;
-                kIndexD = Integer.rotateLeft(a, 2) & 0x3fc;
-
-                kA = ck.getInt(kIndexA + 0x48);
-                kB = ck.getInt(kIndexB + 0x448);
-                kC = ck.getInt(kIndexC + 0x848);
-                kD = ck.getInt(kIndexD + 0xc48);
+        int length = p.capacity() - p.capacity() % BLOCK_SIZE;
+        for (int i = 0; i < length; i += BLOCK_SIZE) {
+            long block = encryptBlock(p.getInt(i), p.getInt(i + 4));
+            c.setLong(i, block);
+        }
+    }
 
-                b ^= ((kA + kB) ^ kC) + kD;
-            }
+    /**
+     * Encrypts {@code length} bytes in place starting at {@code index}.
+     */
+    public void encrypt(ByteBuf buffer, int index, int length) {
+        int end = index + length - length % BLOCK_SIZE;
+        for (int i = index; i < end; i += BLOCK_SIZE) {
+            long block = buffer.getLong(i);
+            buffer.setLong(i, encryptBlock((int) (block >>> 32), (int) block));
+        }
+    }
 
-            k = ck.getInt(0x44);
-            a ^= k;
+    // ========================================================================
+    // ByteBuffer
+    // ========================================================================
+
+    /**
+     * Decrypts the buffer in place between its position and limit. The position
+     * is not moved.
+     */
+    public void decrypt(ByteBuffer buffer) {
+        ByteBuffer view = buffer.order() == ByteOrder.BIG_ENDIAN ? buffer
+                : buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+        int end = view.limit() - (view.limit() - view.position()) % BLOCK_SIZE;
+        for (int i = view.position(); i < end; i += BLOCK_SIZE) {
+            long block = view.getLong(i);
+            view.putLong(i, decryptBlock((int) (block >>> 32), (int) block));
+        }
+    }
 
-            c.setInt(i * 8, a).setInt(i * 8 + 4, b);
+    /**
+     * Encrypts the buffer in place between its position and limit. The position
+     * is not moved.
+     */
+    public void encrypt(ByteBuffer buffer) {
+        ByteBuffer view = buffer.order() == ByteOrder.BIG_ENDIAN ? buffer
+                : buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+        int end = view.limit() - (view.limit() - view.position()) % BLOCK_SIZE;
+        for (int i = view.position(); i < end; i += BLOCK_SIZE) {
+            long block = view.getLong(i);
+            view.putLong(i, encryptBlock((int) (block >>> 32), (int) block));
         }
     }
 }
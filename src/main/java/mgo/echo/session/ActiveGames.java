@@ -1,24 +1,55 @@
 package mgo.echo.session;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
 
 import mgo.echo.data.entity.Game;
 
+/**
+ * Hosted games, indexed by id and partitioned for the game list: clan rooms
+ * in one set, every other game under its lobby id.
+ */
 public class ActiveGames {
+    public static final String CLAN_ROOM_PREFIX = "CLAN_ROOM_";
+
     private static final ConcurrentHashMap<Integer, Game> games = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<Integer, Set<Game>> byLobby = new ConcurrentHashMap<>();
+    private static final Set<Game> clanRooms = ConcurrentHashMap.newKeySet();
 
     public static boolean add(Game game) {
         int id = game.getId();
         if (get(id) == null) {
-            return games.put(id, game) == null;
+            if (games.put(id, game) != null) {
+                return false;
+            }
+
+            if (isClanRoom(game)) {
+                clanRooms.add(game);
+            } else if (game.getLobbyId() != null) {
+                byLobby.computeIfAbsent(game.getLobbyId(), (k) -> ConcurrentHashMap.newKeySet()).add(game);
+            }
+            return true;
         }
         return false;
     }
 
     public static boolean remove(Game game) {
-        return games.remove(game.getId()) != null;
+        if (!games.remove(game.getId(), game)) {
+            return false;
+        }
+
+        if (isClanRoom(game)) {
+            clanRooms.remove(game);
+        } else if (game.getLobbyId() != null) {
+            byLobby.computeIfPresent(game.getLobbyId(), (k, set) -> {
+                set.remove(game);
+                return set.isEmpty() ? null : set;
+            });
+        }
+        return true;
     }
 
     public static boolean exists(Game game) {
@@ -29,6 +60,18 @@ public class ActiveGames {
         return games.values();
     }
 
+    /**
+     * Games hosted in a lobby, excluding clan rooms.
+     */
+    public static Collection<Game> getByLobby(int lobbyId) {
+        Set<Game> set = byLobby.get(lobbyId);
+        return set != null ? Collections.unmodifiableSet(set) : Collections.emptySet();
+    }
+
+    public static Collection<Game> getClanRooms() {
+        return Collections.unmodifiableSet(clanRooms);
+    }
+
     public static Game get(Predicate<Game> predicate) {
         return games.search(1, (key, value) -> predicate.test(value) ? value : null);
     }
@@ -36,4 +79,8 @@ public class ActiveGames {
     public static Game get(int id) {
         return games.get(id);
     }
+
+    public static boolean isClanRoom(Game game) {
+        return game.getName() != null && game.getName().startsWith(CLAN_ROOM_PREFIX);
+    }
 }
@@ -1,41 +1,156 @@
 package mgo.echo.session;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
-import java.util.stream.Collectors;
 
 import io.netty.channel.Channel;
+import io.netty.util.AttributeKey;
+import mgo.echo.data.entity.Character;
 import mgo.echo.data.entity.User;
 
+/**
+ * Online users.
+ *
+ * The user is stored on its channel, with secondary indexes by user id and by
+ * current character id. Call {@link #updateCharacter(User)} after switching a
+ * user's character so the character index follows.
+ */
 public class ActiveUsers {
-    private static final ConcurrentHashMap<Channel, User> users = new ConcurrentHashMap<>();
+    private static final AttributeKey<User> USER = AttributeKey.valueOf("user");
+    private static final AttributeKey<Integer> CHARACTER_ID = AttributeKey.valueOf("userCharacterId");
+
+    private static final Set<Channel> channels = ConcurrentHashMap.newKeySet();
+    private static final ConcurrentHashMap<Integer, Set<Channel>> byUserId = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<Integer, Channel> byCharacterId = new ConcurrentHashMap<>();
 
     public static boolean add(Channel channel, User user) {
-        if (get(channel) == null) {
-            return users.put(channel, user) == null;
+        if (channel.attr(USER).setIfAbsent(user) != null) {
+            return false;
+        }
+
+        channels.add(channel);
+        if (user.getId() != null) {
+            byUserId.computeIfAbsent(user.getId(), (k) -> ConcurrentHashMap.newKeySet()).add(channel);
         }
-        return false;
+        indexCharacter(channel, user);
+        return true;
     }
 
     public static boolean remove(Channel channel) {
-        return users.remove(channel) != null;
+        User user = channel.attr(USER).getAndSet(null);
+        if (user == null) {
+            return false;
+        }
+
+        channels.remove(channel);
+        if (user.getId() != null) {
+            byUserId.computeIfPresent(user.getId(), (k, set) -> {
+                set.remove(channel);
+                return set.isEmpty() ? null : set;
+            });
+        }
+
+        Integer characterId = channel.attr(CHARACTER_ID).getAndSet(null);
+        if (characterId != null) {
+            byCharacterId.remove(characterId, channel);
+        }
+        return true;
     }
 
     public static User get(Channel channel) {
-        return users.get(channel);
+        return channel.attr(USER).get();
     }
 
     public static List<User> get(Predicate<User> predicate) {
-        return users.values().stream().filter(predicate).collect(Collectors.toList());
+        List<User> users = new ArrayList<>();
+        for (Channel channel : channels) {
+            User user = get(channel);
+            if (user != null && predicate.test(user)) {
+                users.add(user);
+            }
+        }
+        return users;
     }
 
     public static User getOne(Predicate<User> predicate) {
-        return users.search(1, (key, value) -> predicate.test(value) ? value : null);
+        for (Channel channel : channels) {
+            User user = get(channel);
+            if (user != null && predicate.test(user)) {
+                return user;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * All online sessions for a user id, usually one.
+     */
+    public static List<User> getByUserId(int userId) {
+        Set<Channel> set = byUserId.get(userId);
+        if (set == null) {
+            return new ArrayList<>(0);
+        }
+
+        List<User> users = new ArrayList<>(set.size());
+        for (Channel channel : set) {
+            User user = get(channel);
+            if (user != null) {
+                users.add(user);
+            }
+        }
+        return users;
     }
 
     public static User getByCharacterId(int charaId) {
-        return getOne((e) -> e != null && e.getCurrentCharacterId() != null
-                && (Integer) e.getCurrentCharacterId() == charaId);
+        Channel channel = byCharacterId.get(charaId);
+        return channel != null ? get(channel) : null;
+    }
+
+    public static Channel getChannelByCharacterId(int charaId) {
+        return byCharacterId.get(charaId);
+    }
+
+    /**
+     * Channels of every user with a character selected. Live view; do not
+     * modify.
+     */
+    public static Collection<Channel> getCharacterChannels() {
+        return byCharacterId.values();
+    }
+
+    /**
+     * Re-index the user under its current character.
+     */
+    public static void updateCharacter(User user) {
+        Channel channel = user.getChannel();
+        if (channel == null || get(channel) != user) {
+            return;
+        }
+
+        indexCharacter(channel, user);
+    }
+
+    private static void indexCharacter(Channel channel, User user) {
+        Integer characterId = getCharacterId(user);
+
+        Integer previous = channel.attr(CHARACTER_ID).getAndSet(characterId);
+        if (previous != null && !previous.equals(characterId)) {
+            byCharacterId.remove(previous, channel);
+        }
+        if (characterId != null) {
+            byCharacterId.put(characterId, channel);
+        }
+    }
+
+    private static Integer getCharacterId(User user) {
+        Character character = user.getCurrentCharacter();
+        if (character != null && character.getId() != null) {
+            return character.getId();
+        }
+        return user.getCurrentCharacterId();
     }
 }
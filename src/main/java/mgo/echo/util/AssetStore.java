@@ -0,0 +1,210 @@
+package mgo.echo.util;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.util.IllegalReferenceCountException;
+
+/**
+ * Static .bin payloads from the assets directory, held in memory.
+ *
+ * Every .bin file is loaded at startup. Files under 64 KiB are copied into
+ * direct memory and larger ones are memory-mapped. Readers get read-only
+ * retained duplicates, so there is no disk I/O or copy per packet. With
+ * watching enabled, files changed on disk are reloaded.
+ */
+public class AssetStore {
+    private static final Logger logger = LogManager.getLogger(AssetStore.class);
+
+    private static final String EXTENSION = ".bin";
+    private static final long MAP_THRESHOLD = 64 * 1024;
+
+    private static final ConcurrentHashMap<String, ByteBuf> assets = new ConcurrentHashMap<>();
+
+    private static Path directory;
+    private static WatchService watchService;
+    private static Thread watcher;
+
+    private AssetStore() {
+    }
+
+    public static synchronized void start(boolean watch) {
+        directory = Paths.get(Util.getAssetsDirectory()).toAbsolutePath().normalize();
+
+        int loaded = 0;
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                if (isAsset(file) && load(file) != null) {
+                    loaded++;
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Failed to list assets in {}.", directory, e);
+        }
+
+        logger.info("Loaded {} assets from {}.", loaded, directory);
+
+        if (watch) {
+            startWatcher();
+        }
+    }
+
+    public static synchronized void stop() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                logger.error("Failed to close asset watcher.", e);
+            }
+            watchService = null;
+        }
+
+        if (watcher != null) {
+            try {
+                watcher.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            watcher = null;
+        }
+
+        for (String name : assets.keySet()) {
+            Util.releaseBuffer(assets.remove(name));
+        }
+    }
+
+    /**
+     * @return A read-only duplicate of the asset; the caller owns it
+     * @throws FileNotFoundException If there's no such asset
+     */
+    public static ByteBuf get(String name) throws IOException {
+        while (true) {
+            ByteBuf asset = assets.get(name);
+            if (asset == null) {
+                asset = loadMissing(name);
+            }
+
+            try {
+                return asset.retainedDuplicate();
+            } catch (IllegalReferenceCountException e) {
+                // Replaced and released by the watcher in between; look it up again
+            }
+        }
+    }
+
+    private static synchronized ByteBuf loadMissing(String name) throws IOException {
+        ByteBuf asset = assets.get(name);
+        if (asset != null) {
+            return asset;
+        }
+
+        Path file = Paths.get(Util.getAssetsDirectory()).resolve(name);
+        if (!Files.isRegularFile(file)) {
+            throw new FileNotFoundException("No asset " + name);
+        }
+
+        asset = load(file);
+        if (asset == null) {
+            throw new IOException("Failed to load asset " + name);
+        }
+        return asset;
+    }
+
+    private static boolean isAsset(Path file) {
+        return file.getFileName().toString().endsWith(EXTENSION) && Files.isRegularFile(file);
+    }
+
+    private static ByteBuf load(Path file) {
+        try (FileChannel fc = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = fc.size();
+
+            ByteBuf asset;
+            if (size >= MAP_THRESHOLD) {
+                asset = Unpooled.wrappedBuffer(fc.map(FileChannel.MapMode.READ_ONLY, 0, size));
+            } else {
+                asset = Unpooled.directBuffer((int) size);
+                while (asset.isWritable()) {
+                    if (asset.writeBytes(fc, asset.writableBytes()) < 0) {
+                        break;
+                    }
+                }
+                // Packets are sized by capacity; trim if the file shrank while reading
+                asset.capacity(asset.writerIndex());
+            }
+
+            asset = asset.asReadOnly();
+            Util.releaseBuffer(assets.put(file.getFileName().toString(), asset));
+            return asset;
+        } catch (IOException e) {
+            logger.error("Failed to load asset {}.", file, e);
+            return null;
+        }
+    }
+
+    // ========================================================================
+    // Watcher
+    // ========================================================================
+
+    private static void startWatcher() {
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        } catch (IOException e) {
+            logger.error("Failed to watch assets in {}.", directory, e);
+            return;
+        }
+
+        WatchService service = watchService;
+        watcher = new Thread(() -> watch(service), "Asset Watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    private static void watch(WatchService service) {
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        continue;
+                    }
+
+                    Path file = directory.resolve((Path) event.context());
+                    String name = file.getFileName().toString();
+                    if (!name.endsWith(EXTENSION)) {
+                        continue;
+                    }
+
+                    if (event.kind() == StandardWatchEventKinds.ENTRY_DELETE) {
+                        Util.releaseBuffer(assets.remove(name));
+                        logger.info("Removed asset {}.", name);
+                    } else if (Files.isRegularFile(file) && load(file) != null) {
+                        logger.info("Reloaded asset {}.", name);
+                    }
+                }
+                key.reset();
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            // Stopped
+        }
+    }
+}
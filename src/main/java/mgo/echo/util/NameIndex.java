@@ -0,0 +1,208 @@
+package mgo.echo.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Entries keyed by id and indexed by name, for exact and substring search.
+ *
+ * Names are keyed lowercased, so lookups are case insensitive like the MySQL
+ * collation they replace. Substring search picks the rarest trigram of the
+ * query and filters its postings; queries shorter than a trigram scan every
+ * entry. Postings are sorted id arrays, so results come out ordered by id and
+ * the scan stops at the limit. Not thread safe; callers guard it.
+ */
+public class NameIndex<E> {
+    private final TreeMap<Integer, Node<E>> byId = new TreeMap<>();
+    private final Map<String, Postings> byName = new HashMap<>();
+    private final Map<Long, Postings> trigrams = new HashMap<>();
+
+    private static final class Node<E> {
+        private final String key;
+        private final E entry;
+
+        private Node(String key, E entry) {
+            this.key = key;
+            this.entry = entry;
+        }
+    }
+
+    /**
+     * Sorted, growable array of ids.
+     */
+    private static final class Postings {
+        private int[] ids = new int[2];
+        private int size;
+
+        void add(int id) {
+            if (size == 0 || ids[size - 1] < id) {
+                append(id);
+                return;
+            }
+
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                return;
+            }
+
+            index = -index - 1;
+            append(0);
+            System.arraycopy(ids, index, ids, index + 1, size - index - 1);
+            ids[index] = id;
+        }
+
+        boolean remove(int id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index < 0) {
+                return false;
+            }
+
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            size--;
+            return true;
+        }
+
+        private void append(int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+    }
+
+    // ========================================================================
+    // Queries
+    // ========================================================================
+
+    public E get(int id) {
+        Node<E> node = byId.get(id);
+        return node != null ? node.entry : null;
+    }
+
+    /**
+     * @return Every entry, ordered by id
+     */
+    public List<E> values() {
+        List<E> result = new ArrayList<>(byId.size());
+        for (Node<E> node : byId.values()) {
+            result.add(node.entry);
+        }
+        return result;
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    public boolean contains(String name) {
+        return byName.containsKey(name.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * @return Up to {@code limit} entries whose name is {@code name}, or
+     *         contains it unless {@code exactOnly}, ordered by id
+     */
+    public List<E> search(String name, boolean exactOnly, int limit) {
+        String query = name.toLowerCase(Locale.ROOT);
+        List<E> result = new ArrayList<>();
+
+        if (exactOnly) {
+            collect(byName.get(query), null, limit, result);
+            return result;
+        }
+
+        if (query.length() < 3) {
+            for (Node<E> node : byId.values()) {
+                if (result.size() >= limit) {
+                    break;
+                }
+                if (node.key.contains(query)) {
+                    result.add(node.entry);
+                }
+            }
+            return result;
+        }
+
+        Postings smallest = null;
+        for (int i = 0; i + 3 <= query.length(); i++) {
+            Postings ids = trigrams.get(trigram(query, i));
+            if (ids == null) {
+                return result;
+            }
+            if (smallest == null || ids.size < smallest.size) {
+                smallest = ids;
+            }
+        }
+        collect(smallest, query, limit, result);
+        return result;
+    }
+
+    private void collect(Postings ids, String contains, int limit, List<E> result) {
+        if (ids == null) {
+            return;
+        }
+
+        for (int i = 0; i < ids.size && result.size() < limit; i++) {
+            Node<E> node = byId.get(ids.ids[i]);
+            if (contains == null || node.key.contains(contains)) {
+                result.add(node.entry);
+            }
+        }
+    }
+
+    // ========================================================================
+    // Updates
+    // ========================================================================
+
+    /**
+     * Add an entry, replacing any entry already indexed under its id.
+     */
+    public void put(int id, String name, E entry) {
+        remove(id);
+
+        String key = name.toLowerCase(Locale.ROOT);
+        byId.put(id, new Node<>(key, entry));
+        byName.computeIfAbsent(key, k -> new Postings()).add(id);
+        for (int i = 0; i + 3 <= key.length(); i++) {
+            trigrams.computeIfAbsent(trigram(key, i), k -> new Postings()).add(id);
+        }
+    }
+
+    /**
+     * @return The removed entry, or null if none was indexed under the id
+     */
+    public E remove(int id) {
+        Node<E> node = byId.remove(id);
+        if (node == null) {
+            return null;
+        }
+
+        removeFrom(byName, node.key, id);
+        for (int i = 0; i + 3 <= node.key.length(); i++) {
+            removeFrom(trigrams, trigram(node.key, i), id);
+        }
+        return node.entry;
+    }
+
+    public void clear() {
+        byId.clear();
+        byName.clear();
+        trigrams.clear();
+    }
+
+    private static <K> void removeFrom(Map<K, Postings> index, K key, int id) {
+        Postings ids = index.get(key);
+        if (ids != null && ids.remove(id) && ids.size == 0) {
+            index.remove(key);
+        }
+    }
+
+    private static long trigram(String key, int index) {
+        return ((long) key.charAt(index) << 32) | ((long) key.charAt(index + 1) << 16) | key.charAt(index + 2);
+    }
+}
@@ -1,13 +1,25 @@
 package mgo.echo.util;
 
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.EventLoop;
 import mgo.echo.protocol.Packet;
 
 public class Packets {
+    private static final Logger logger = LogManager.getLogger(Packets.class);
+
     public static void flush(Channel ch) {
         ch.flush();
     }
@@ -112,4 +124,72 @@ public class Packets {
 
         writeError(ctx.channel(), command, error.getCode());
     }
+
+    // ========================================================================
+    // Broadcast
+    // ========================================================================
+
+    /**
+     * Send the same payload to every channel. Each recipient gets a retained
+     * duplicate of the payload, which is released here.
+     */
+    public static void broadcast(Iterable<Channel> channels, int command, ByteBuf payload) {
+        try {
+            broadcast(channels, command, (ch) -> payload.retainedDuplicate());
+        } finally {
+            Util.releaseBuffer(payload);
+        }
+    }
+
+    /**
+     * Send a per-channel payload to every channel. Payloads are built on the
+     * calling thread; writes are grouped by event loop so each loop runs one
+     * task and flushes each of its channels once.
+     */
+    public static void broadcast(Iterable<Channel> channels, int command, Function<Channel, ByteBuf> payloads) {
+        Map<EventLoop, List<Packet>> byLoop = new IdentityHashMap<>();
+        Map<EventLoop, List<Channel>> channelsByLoop = new IdentityHashMap<>();
+
+        for (Channel ch : channels) {
+            if (ch == null || !ch.isActive()) {
+                continue;
+            }
+
+            ByteBuf bo = payloads.apply(ch);
+            if (bo == null) {
+                continue;
+            }
+
+            EventLoop loop = ch.eventLoop();
+            byLoop.computeIfAbsent(loop, (k) -> new ArrayList<>()).add(new Packet(command, bo));
+            channelsByLoop.computeIfAbsent(loop, (k) -> new ArrayList<>()).add(ch);
+        }
+
+        for (Map.Entry<EventLoop, List<Packet>> entry : byLoop.entrySet()) {
+            List<Packet> packets = entry.getValue();
+            List<Channel> targets = channelsByLoop.get(entry.getKey());
+            try {
+                entry.getKey().execute(() -> writeAndFlush(targets, packets));
+            } catch (RejectedExecutionException e) {
+                logger.warn("Dropped broadcast of {} to {} channels.", String.format("%04x", command),
+                        targets.size());
+                packets.forEach(Packet::release);
+            }
+        }
+    }
+
+    private static void writeAndFlush(List<Channel> targets, List<Packet> packets) {
+        for (int i = 0; i < targets.size(); i++) {
+            Channel ch = targets.get(i);
+            if (ch.isActive()) {
+                ch.write(packets.get(i));
+            } else {
+                packets.get(i).release();
+            }
+        }
+
+        for (Channel ch : targets) {
+            ch.flush();
+        }
+    }
 }
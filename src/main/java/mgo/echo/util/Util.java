@@ -8,7 +8,9 @@ import java.nio.CharBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.CharsetEncoder;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicReference;
 
 import com.google.gson.Gson;
@@ -18,6 +20,7 @@ import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
 import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandlerContext;
@@ -34,6 +37,10 @@ public class Util {
 
     private static final Gson GSON = new GsonBuilder().serializeNulls().create();
 
+    // Per-thread encoders for charsets without a fast path in writeString
+    private static final ThreadLocal<Map<Charset, CharsetEncoder>> ENCODERS = ThreadLocal
+            .withInitial(IdentityHashMap::new);
+
     // Base directory for static game asset binaries (.bin files). Can be overridden
     // via
     // -Decho.assets.dir=/path or environment variable ECHO_ASSETS_DIR. Defaults
@@ -141,20 +148,17 @@ public class Util {
         return Util.readString(buffer, maxLength, CharsetUtil.ISO_8859_1);
     }
 
+    /**
+     * Read a fixed-width, NUL-padded string field. Always consumes
+     * {@code maxLength} bytes, or whatever is left if less.
+     */
     public static String readString(ByteBuf buffer, int maxLength, Charset charset) {
-        ByteBuf input = PooledByteBufAllocator.DEFAULT.buffer(maxLength);
-        int len = (buffer.readableBytes() >= maxLength) ? maxLength : buffer.readableBytes();
-        buffer.readBytes(input, len);
-        for (int i = 0; i < len; i++) {
-            byte b = input.getByte(i);
-            if (b == (byte) 0x00) {
-                input.capacity(i);
-                break;
-            }
-        }
+        int start = buffer.readerIndex();
+        int len = Math.min(maxLength, buffer.readableBytes());
+        int end = buffer.indexOf(start, start + len, (byte) 0x00);
 
-        String str = input.toString(charset);
-        input.release();
+        String str = buffer.toString(start, (end >= 0 ? end : start + len) - start, charset);
+        buffer.skipBytes(len);
         return str;
     }
 
@@ -189,17 +193,86 @@ public class Util {
         Util.writeString(str, length, buffer, CharsetUtil.ISO_8859_1);
     }
 
+    /**
+     * Write a fixed-width string field of exactly {@code length} bytes,
+     * truncated and NUL-padded. Encoding stops at the first character that
+     * can't be encoded or doesn't fit.
+     */
     public static void writeString(String str, int length, ByteBuf buffer, Charset charset) {
-        CharsetEncoder ce = charset.newEncoder();
-        String newStr = str.substring(0, Math.min(str.length(), length));
-        ByteBuffer niobuf = ByteBuffer.allocate(length);
-        try {
-            ce.encode(CharBuffer.wrap(newStr), niobuf, true);
-        } catch (Exception e) {
-            e.printStackTrace();
+        int start = buffer.writerIndex();
+        buffer.ensureWritable(length);
+
+        int written;
+        if (charset == CharsetUtil.ISO_8859_1) {
+            written = setSingleByte(str, length, buffer, start, 0xff);
+        } else if (charset == CharsetUtil.US_ASCII) {
+            written = setSingleByte(str, length, buffer, start, 0x7f);
+        } else if (charset == CharsetUtil.UTF_8) {
+            written = writeUtf8(str, length, buffer);
+        } else {
+            written = setEncoded(str, length, buffer, start, charset);
+        }
+
+        buffer.setZero(start + written, length - written);
+        buffer.writerIndex(start + length);
+    }
+
+    private static int setSingleByte(String str, int length, ByteBuf buffer, int index, int maxChar) {
+        int count = Math.min(str.length(), length);
+        for (int i = 0; i < count; i++) {
+            char c = str.charAt(i);
+            if (c > maxChar) {
+                return i;
+            }
+            buffer.setByte(index + i, c);
         }
-        niobuf.position(0);
-        buffer.writeBytes(niobuf);
+        return count;
+    }
+
+    private static int writeUtf8(String str, int length, ByteBuf buffer) {
+        int count = Math.min(str.length(), length);
+        int bytes = 0;
+        int end = 0;
+        while (end < count) {
+            char c = str.charAt(end);
+            int charBytes;
+            int chars = 1;
+            if (c < 0x80) {
+                charBytes = 1;
+            } else if (c < 0x800) {
+                charBytes = 2;
+            } else if (!Character.isSurrogate(c)) {
+                charBytes = 3;
+            } else if (Character.isHighSurrogate(c) && end + 1 < count
+                    && Character.isLowSurrogate(str.charAt(end + 1))) {
+                charBytes = 4;
+                chars = 2;
+            } else {
+                break;
+            }
+
+            if (bytes + charBytes > length) {
+                break;
+            }
+            bytes += charBytes;
+            end += chars;
+        }
+
+        if (end == 0) {
+            return 0;
+        }
+
+        ByteBufUtil.reserveAndWriteUtf8(buffer, str, 0, end, bytes);
+        return bytes;
+    }
+
+    private static int setEncoded(String str, int length, ByteBuf buffer, int index, Charset charset) {
+        CharsetEncoder ce = ENCODERS.get().computeIfAbsent(charset, Charset::newEncoder);
+        ce.reset();
+
+        ByteBuffer niobuf = buffer.nioBuffer(index, length);
+        ce.encode(CharBuffer.wrap(str, 0, Math.min(str.length(), length)), niobuf, true);
+        return niobuf.position();
     }
 
     /**